@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a <code>&lt;RowClass&gt;_SinkSqlMapper</code> implementing <code>GeneratedRowMapper</code> for every class with
+ * <code>&#64;Column</code> fields<br/>
+ * The mapper also contains the column annotations and table indexes as <code>ColumnDescriptor</code>s, so the row class
+ * doesn't have to be scanned by reflection at runtime.<br/>
+ * Classes which can't be mapped without reflection (non-public fields, unsupported column types, no public no-args constructor)
+ * are skipped and will be handled by the reflection based implementation at runtime.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.COLUMN_ANNOTATION)
+public class RowMapperProcessor extends AbstractProcessor {
+
+    static final String COLUMN_ANNOTATION = "de.static_interface.sinksql.annotation.Column";
+    private static final String MAPPER_INTERFACE = "de.static_interface.sinksql.GeneratedRowMapper";
+    private static final String CLASS_SUFFIX = "_SinkSqlMapper";
+    private static final String DESCRIPTOR_CLASS = "de.static_interface.sinksql.ColumnDescriptor";
+    private static final String TABLE_INDEX_ANNOTATION = "de.static_interface.sinksql.annotation.TableIndex";
+    private static final String TABLE_INDEXES_ANNOTATION = "de.static_interface.sinksql.annotation.TableIndexes";
+
+    /**
+     * The described annotations and the <code>ColumnDescriptor</code> factory methods which create them
+     */
+    private static final Map<String, String> FACTORIES = new HashMap<>();
+
+    private static final Map<String, ColumnType> TYPES = new HashMap<>();
+
+    static {
+        FACTORIES.put(COLUMN_ANNOTATION, "column");
+        FACTORIES.put("javax.annotation.Nullable", "nullable");
+        FACTORIES.put("de.static_interface.sinksql.annotation.UniqueKey", "uniqueKey");
+        FACTORIES.put("de.static_interface.sinksql.annotation.ForeignKey", "foreignKey");
+        FACTORIES.put("de.static_interface.sinksql.annotation.Index", "index");
+        FACTORIES.put("de.static_interface.sinksql.annotation.FullTextIndex", "fullTextIndex");
+        FACTORIES.put(TABLE_INDEX_ANNOTATION, "tableIndex");
+
+        TYPES.put("int", new ColumnType("Int", "INTEGER", true));
+        TYPES.put("java.lang.Integer", new ColumnType("Int", "INTEGER", false));
+        TYPES.put("long", new ColumnType("Long", "BIGINT", true));
+        TYPES.put("java.lang.Long", new ColumnType("Long", "BIGINT", false));
+        TYPES.put("short", new ColumnType("Short", "SMALLINT", true));
+        TYPES.put("java.lang.Short", new ColumnType("Short", "SMALLINT", false));
+        TYPES.put("byte", new ColumnType("Byte", "TINYINT", true));
+        TYPES.put("java.lang.Byte", new ColumnType("Byte", "TINYINT", false));
+        TYPES.put("double", new ColumnType("Double", "DOUBLE", true));
+        TYPES.put("java.lang.Double", new ColumnType("Double", "DOUBLE", false));
+        TYPES.put("float", new ColumnType("Float", "REAL", true));
+        TYPES.put("java.lang.Float", new ColumnType("Float", "REAL", false));
+        TYPES.put("boolean", new ColumnType("Boolean", "BOOLEAN", true));
+        TYPES.put("java.lang.Boolean", new ColumnType("Boolean", "BOOLEAN", false));
+        TYPES.put("java.lang.String", new ColumnType("String", "VARCHAR", false));
+    }
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement columnAnnotation = processingEnv.getElementUtils().getTypeElement(COLUMN_ANNOTATION);
+        if (columnAnnotation == null) {
+            return false;
+        }
+
+        Set<TypeElement> rowTypes = new LinkedHashSet<>();
+        for (Element e : roundEnv.getElementsAnnotatedWith(columnAnnotation)) {
+            if (e.getKind() == ElementKind.FIELD && e.getEnclosingElement() instanceof TypeElement) {
+                rowTypes.add((TypeElement) e.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement type : rowTypes) {
+            String qualifiedName = getMapperName(type);
+            if (generated.contains(qualifiedName)) {
+                continue;
+            }
+
+            List<MappedColumn> columns = collectColumns(type, columnAnnotation);
+            if (columns == null) {
+                continue;
+            }
+
+            try {
+                writeMapper(type, qualifiedName, columns);
+                generated.add(qualifiedName);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Couldn't write " + qualifiedName + ": " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    private List<MappedColumn> collectColumns(TypeElement type, TypeElement columnAnnotation) {
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return skip(type, "class is not public or abstract");
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+            return skip(type, "inner classes are not supported");
+        }
+        if (!hasPublicNoArgsConstructor(type)) {
+            return skip(type, "no public no-args constructor");
+        }
+
+        List<MappedColumn> columns = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        TypeElement current = type;
+        while (current != null) {
+            for (Element e : current.getEnclosedElements()) {
+                if (e.getKind() != ElementKind.FIELD || e.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                AnnotationMirror column = getAnnotation(e, columnAnnotation);
+                if (column == null) {
+                    continue;
+                }
+
+                VariableElement field = (VariableElement) e;
+                String name = getColumnName(field, column);
+                if (!names.add(name)) {
+                    continue; // shadowed by a subclass field
+                }
+
+                if (!field.getModifiers().contains(Modifier.PUBLIC) || field.getModifiers().contains(Modifier.FINAL)) {
+                    return skip(type, "field " + field.getSimpleName() + " is not public or final");
+                }
+
+                ColumnType columnType = TYPES.get(field.asType().toString());
+                if (columnType == null) {
+                    return skip(type, "field " + field.getSimpleName() + " has an unsupported type: " + field.asType());
+                }
+                columns.add(new MappedColumn(field, name, columnType));
+            }
+
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+
+        if (columns.isEmpty()) {
+            return null;
+        }
+        return columns;
+    }
+
+    private List<MappedColumn> skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "No row mapper generated for " + type.getQualifiedName() + ": " + reason, type);
+        return null;
+    }
+
+    private boolean hasPublicNoArgsConstructor(TypeElement type) {
+        for (Element e : type.getEnclosedElements()) {
+            if (e.getKind() == ElementKind.CONSTRUCTOR && e.getModifiers().contains(Modifier.PUBLIC)
+                && ((ExecutableElement) e).getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AnnotationMirror getAnnotation(Element e, TypeElement annotation) {
+        for (AnnotationMirror mirror : e.getAnnotationMirrors()) {
+            if (processingEnv.getTypeUtils().isSameType(mirror.getAnnotationType(), annotation.asType())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String getColumnName(VariableElement field, AnnotationMirror column) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : column.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("name")) {
+                String name = entry.getValue().getValue().toString();
+                if (!name.trim().isEmpty()) {
+                    return name;
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private String getPackageName(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    private String getMapperName(TypeElement type) {
+        String packageName = getPackageName(type);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + CLASS_SUFFIX;
+    }
+
+    private void writeMapper(TypeElement type, String qualifiedName, List<MappedColumn> columns) throws IOException {
+        String packageName = getPackageName(type);
+        String simpleName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        String rowType = type.getQualifiedName().toString();
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by ").append(RowMapperProcessor.class.getName()).append(", do not edit\n */\n");
+        sb.append("public final class ").append(simpleName).append(" implements ").append(MAPPER_INTERFACE).append("<").append(rowType)
+                .append("> {\n\n");
+
+        sb.append("    private static final String[] COLUMNS = {");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(columns.get(i).name).append('"');
+        }
+        sb.append("};\n\n");
+
+        sb.append("    private static final ").append(DESCRIPTOR_CLASS).append("[] DESCRIPTORS = {\n");
+        for (MappedColumn column : columns) {
+            sb.append("            new ").append(DESCRIPTOR_CLASS).append("(\"").append(column.field).append('"');
+            for (AnnotationMirror annotation : column.element.getAnnotationMirrors()) {
+                if (FACTORIES.containsKey(getQualifiedName(annotation))) {
+                    sb.append(",\n                    ").append(toSource(annotation));
+                }
+            }
+            sb.append("),\n");
+        }
+        sb.append("    };\n\n");
+
+        sb.append("    private static final ").append(TABLE_INDEX_ANNOTATION).append("[] TABLE_INDEXES = {\n");
+        for (AnnotationMirror annotation : getTableIndexes(type)) {
+            sb.append("            ").append(toSource(annotation)).append(",\n");
+        }
+        sb.append("    };\n\n");
+
+        sb.append("    @Override\n    public String[] getColumnNames() {\n        return COLUMNS.clone();\n    }\n\n");
+        sb.append("    @Override\n    public ").append(DESCRIPTOR_CLASS).append("[] getColumnDescriptors() {\n        return DESCRIPTORS.clone();\n    }\n\n");
+        sb.append("    @Override\n    public ").append(TABLE_INDEX_ANNOTATION).append("[] getTableIndexes() {\n        return TABLE_INDEXES.clone();\n    }\n\n");
+        sb.append("    @Override\n    public ").append(rowType).append(" newInstance() {\n        return new ").append(rowType).append("();\n    }\n\n");
+
+        sb.append("    @Override\n    public ").append(rowType).append(" read(java.sql.ResultSet rs) throws java.sql.SQLException {\n");
+        sb.append("        ").append(rowType).append(" row = new ").append(rowType).append("();\n");
+        for (MappedColumn column : columns) {
+            String getter = "rs.get" + column.type.accessor + "(\"" + column.name + "\")";
+            if (column.type.primitive || column.type.accessor.equals("String")) {
+                sb.append("        row.").append(column.field).append(" = ").append(getter).append(";\n");
+            } else {
+                sb.append("        {\n");
+                sb.append("            ").append(column.type.accessor.toLowerCase()).append(" value = ").append(getter).append(";\n");
+                sb.append("            row.").append(column.field).append(" = rs.wasNull() ? null : value;\n");
+                sb.append("        }\n");
+            }
+        }
+        sb.append("        return row;\n    }\n\n");
+
+        sb.append("    @Override\n    public void bind(").append(rowType).append(" row, java.sql.PreparedStatement ps) throws java.sql.SQLException {\n");
+        for (int i = 0; i < columns.size(); i++) {
+            MappedColumn column = columns.get(i);
+            int index = i + 1;
+            String setter = "ps.set" + column.type.accessor + "(" + index + ", row." + column.field + ");";
+            if (column.type.primitive) {
+                sb.append("        ").append(setter).append("\n");
+            } else {
+                sb.append("        if (row.").append(column.field).append(" == null) {\n");
+                sb.append("            ps.setNull(").append(index).append(", java.sql.Types.").append(column.type.sqlType).append(");\n");
+                sb.append("        } else {\n");
+                sb.append("            ").append(setter).append("\n");
+                sb.append("        }\n");
+            }
+        }
+        sb.append("    }\n}\n");
+
+        Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+        try {
+            writer.write(sb.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private List<AnnotationMirror> getTableIndexes(TypeElement type) {
+        List<AnnotationMirror> indexes = new ArrayList<>();
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            String name = getQualifiedName(annotation);
+            if (name.equals(TABLE_INDEX_ANNOTATION)) {
+                indexes.add(annotation);
+            } else if (name.equals(TABLE_INDEXES_ANNOTATION)) {
+                // repeated @TableIndex annotations are wrapped by the container
+                for (AnnotationValue value : annotation.getElementValues().values()) {
+                    for (Object index : (List<?>) value.getValue()) {
+                        indexes.add((AnnotationMirror) ((AnnotationValue) index).getValue());
+                    }
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private String getQualifiedName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    /**
+     * @return the call of the <code>ColumnDescriptor</code> factory which creates the annotation, with all values in declaration order
+     */
+    private String toSource(AnnotationMirror annotation) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        StringBuilder sb = new StringBuilder(DESCRIPTOR_CLASS).append('.').append(FACTORIES.get(getQualifiedName(annotation))).append('(');
+        boolean first = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(annotation.getAnnotationType().asElement().getEnclosedElements())) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(toSource(method.getReturnType(), values.get(method).getValue()));
+        }
+        return sb.append(')').toString();
+    }
+
+    private String toSource(TypeMirror type, Object value) {
+        if (value instanceof List) {
+            TypeMirror componentType = ((ArrayType) type).getComponentType();
+            StringBuilder sb = new StringBuilder("new ").append(processingEnv.getTypeUtils().erasure(componentType)).append("[] {");
+            boolean first = true;
+            for (Object element : (List<?>) value) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                sb.append(toSource(componentType, ((AnnotationValue) element).getValue()));
+            }
+            return sb.append('}').toString();
+        }
+        if (value instanceof TypeMirror) {
+            return processingEnv.getTypeUtils().erasure((TypeMirror) value) + ".class";
+        }
+        if (value instanceof VariableElement) {
+            // enum constant
+            return ((TypeElement) ((VariableElement) value).getEnclosingElement()).getQualifiedName() + "." + ((VariableElement) value).getSimpleName();
+        }
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private static class ColumnType {
+        private final String accessor;
+        private final String sqlType;
+        private final boolean primitive;
+
+        private ColumnType(String accessor, String sqlType, boolean primitive) {
+            this.accessor = accessor;
+            this.sqlType = sqlType;
+            this.primitive = primitive;
+        }
+    }
+
+    private static class MappedColumn {
+        private final VariableElement element;
+        private final String field;
+        private final String name;
+        private final ColumnType type;
+
+        private MappedColumn(VariableElement element, String name, ColumnType type) {
+            this.element = element;
+            this.field = element.getSimpleName().toString();
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
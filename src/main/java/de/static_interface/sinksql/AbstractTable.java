@@ -20,25 +20,44 @@ package de.static_interface.sinksql;
 import de.static_interface.sinksql.annotation.ForeignKey;
 import de.static_interface.sinksql.annotation.Column;
 import de.static_interface.sinksql.annotation.Index;
+import de.static_interface.sinksql.converter.BinaryValueConverter;
+import de.static_interface.sinksql.converter.ByteArrayConverter;
+import de.static_interface.sinksql.converter.DateConverter;
+import de.static_interface.sinksql.converter.EnumConverter;
+import de.static_interface.sinksql.converter.InputStreamConverter;
+import de.static_interface.sinksql.converter.InstantConverter;
+import de.static_interface.sinksql.converter.LocalDateTimeConverter;
+import de.static_interface.sinksql.converter.UuidConverter;
+import de.static_interface.sinksql.key.KeyGenerator;
 import de.static_interface.sinksql.query.Query;
+import de.static_interface.sinksql.query.impl.WhereQuery;
 import de.static_interface.sinksql.util.ReflectionUtil;
-import de.static_interface.sinksql.util.StringUtil;
 
+import java.io.InputStream;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLNonTransientConnectionException;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -49,10 +68,31 @@ import javax.annotation.Nullable;
  */
 public abstract class AbstractTable<T extends Row> {
 
-    private static Map<Class<?>, Map<Class<?>, SqlObjectConverter>> convertProviders = new HashMap<>();
+    private static final ConverterRegistry<SqlObjectConverter> sqlConverters = new ConverterRegistry<>("SqlObjectConverter");
+    private static final ConverterRegistry<SqlTypeConverter> typeConverters = new ConverterRegistry<>("SqlTypeConverter");
+
+    static {
+        @SuppressWarnings("unchecked")
+        Class<Enum<?>> enumClass = (Class<Enum<?>>) (Class<?>) Enum.class;
+        registerTypeConverter(Database.class, UUID.class, new UuidConverter());
+        registerTypeConverter(Database.class, enumClass, new EnumConverter());
+        registerTypeConverter(Database.class, Instant.class, new InstantConverter());
+        registerTypeConverter(Database.class, LocalDateTime.class, new LocalDateTimeConverter());
+        registerTypeConverter(Database.class, Date.class, new DateConverter());
+        registerTypeConverter(Database.class, byte[].class, new ByteArrayConverter());
+        registerTypeConverter(Database.class, BinaryValue.class, new BinaryValueConverter());
+        registerTypeConverter(Database.class, InputStream.class, new InputStreamConverter());
+    }
+    private static final ClassValue<Class<?>> ROW_CLASSES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> tableClass) {
+            return resolveRowClass(tableClass);
+        }
+    };
     private final String name;
     protected Database db;
     private boolean reconnected = false;
+    private KeyGenerator keyGenerator;
     /**
      * @param name the name of the table
      * @param db the database of this table
@@ -63,22 +103,27 @@ public abstract class AbstractTable<T extends Row> {
     }
 
     public static <K, E> void registerSqlConverter(@Nonnull Class<K> databaseType, @Nonnull Class<E> objectType, SqlObjectConverter<K, E> converter) {
-        if (databaseType != Database.class && !Database.class.isAssignableFrom(databaseType)) {
-            throw new ClassCastException("Can't cast class \"" + databaseType.getName() + "\" to \"" + Database.class.getName() + "\"!");
-        }
-        Map<Class<?>, SqlObjectConverter> converters = convertProviders.get(databaseType);
-        if (converters == null) {
-            converters = new HashMap<>();
-        }
+        sqlConverters.register(databaseType, objectType, converter);
+    }
 
-        if (converters.get(objectType) != null) {
-            throw new IllegalStateException(
-                    "Class \"" + objectType.getSimpleName() + "\" already has a sql converter for database type: \"" + databaseType.getSimpleName()
-                    + "\"");
-        }
+    /**
+     * Register a bidirectional converter for a custom type. Values of this type will be bound and read using the typed JDBC methods
+     * @param databaseType the database type, subclasses will inherit the converter
+     * @param objectType the value type, subclasses and implementations will inherit the converter
+     * @param converter the converter
+     */
+    public static <K, E> void registerTypeConverter(@Nonnull Class<? extends K> databaseType, @Nonnull Class<E> objectType, SqlTypeConverter<K, E> converter) {
+        typeConverters.register(databaseType, objectType, converter);
+    }
 
-        converters.put(objectType, converter);
-        convertProviders.put(databaseType, converters);
+    /**
+     * @param databaseType the database type
+     * @param objectType the value type
+     * @return the {@link SqlTypeConverter} or null if the type has no registered converter
+     */
+    @Nullable
+    public static <K, E> SqlTypeConverter<K, E> getTypeConverter(Class<K> databaseType, Class<E> objectType) {
+        return typeConverters.get(databaseType, objectType);
     }
 
     /**
@@ -98,59 +143,23 @@ public abstract class AbstractTable<T extends Row> {
         return false;
     }
 
-    public <K, E> SqlObjectConverter<K, E> getSqlConverter(Class<K> databaseType, Class<E> objectType) {
-        Map<Class<?>, SqlObjectConverter> converters = convertProviders.get(databaseType);
-
-        if (converters != null) {
-            if (converters.containsKey(objectType)) {
-                return converters.get(objectType);
-            }
-
-            // No converter for this class available, search for of the interfaces
-
-            Class<?> matchedClass = objectType;
-            int found = 0;
-
-            for (Class<?> clazz : objectType.getInterfaces()) {
-                if (converters.containsKey(clazz)) {
-                    found++;
-                    matchedClass = clazz;
-                }
-            }
-
-            if (found > 0) {
-                if (found > 1) {
-                    throw new IllegalStateException(
-                            "Found multiple possible SqlObjectConverters for class: " + objectType.getSimpleName() + " in database: " + databaseType
-                                    .getSimpleName());
-                }
-
-                return converters.get(matchedClass);
-            }
-
-            // Loop trough all superclasses, since there is also no SqlObjectConverter for the interface
-            while (true) {
-                if (converters.containsKey(matchedClass)) {
-                    break;
-                }
-
-                matchedClass = matchedClass.getSuperclass();
-                if (matchedClass == null) {
-                    break;
-                }
-            }
-
-            if (matchedClass != null) {
-                return converters.get(matchedClass);
-            }
-        }
-
-        if (databaseType.getSuperclass() != null && (databaseType == Database.class ||
-                                                     Database.class.isAssignableFrom(databaseType.getSuperclass()))) {
-            return (SqlObjectConverter<K, E>) getSqlConverter((Class<? extends Database>) databaseType.getSuperclass(), objectType);
+    /**
+     * @param rs the ResultSet
+     * @return the labels of all columns of the ResultSet
+     * @throws SQLException
+     */
+    public static Set<String> getColumnLabels(ResultSet rs) throws SQLException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columns = rsmd.getColumnCount();
+        Set<String> labels = new HashSet<>();
+        for (int x = 1; x <= columns; x++) {
+            labels.add(rsmd.getColumnLabel(x));
         }
+        return labels;
+    }
 
-        return null;
+    public <K, E> SqlObjectConverter<K, E> getSqlConverter(Class<K> databaseType, Class<E> objectType) {
+        return sqlConverters.get(databaseType, objectType);
     }
 
     /**
@@ -197,7 +206,8 @@ public abstract class AbstractTable<T extends Row> {
 
     /**
      * Tries to convert an object to an sql parsable value<br/>
-     * Adds (")'s to the start and ends of strings and escapes all other "'s
+     * Adds (")'s to the start and ends of strings and escapes all other "'s. Values of types with a {@link SqlTypeConverter}
+     * are rendered in their stored representation
      * @param o The object to parse
      * @param strict if strict, strings like "?" and "null" will also be string values and not auto converted
      * @return the parsed sql value
@@ -208,6 +218,15 @@ public abstract class AbstractTable<T extends Row> {
             return converter.convert(getDatabase(), o, strict);
         }
 
+        SqlTypeConverter typeConverter = getTypeConverter(getDatabase().getClass(), o.getClass());
+        if (typeConverter != null) {
+            String literal = typeConverter.toSqlLiteral(getDatabase(), o);
+            if (literal == null) {
+                throw new IllegalArgumentException(o.getClass().getName() + " values can't be inlined, bind them with \"?\" instead");
+            }
+            return literal;
+        }
+
         if (o instanceof String) {
             if (o.equals("?") && !strict) {
                 return (String) o;
@@ -240,16 +259,6 @@ public abstract class AbstractTable<T extends Row> {
     public T[] get(String query, Object... bindings) {
         try {
             query = query.replaceAll("\\Q{TABLE}\\E", getName());
-            validateConnection();
-            PreparedStatement statement = db.getConnection().prepareStatement(query, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-            if (bindings != null && bindings.length > 0) {
-                int i = 1;
-                for (Object s : bindings) {
-                    statement.setObject(i, s);
-                    i++;
-                }
-            }
-
             ResultSet rs = executeQuery(query, bindings);
 
             List<T> result = deserializeResultSet(rs);
@@ -262,6 +271,107 @@ public abstract class AbstractTable<T extends Row> {
         }
     }
 
+    /**
+     * Get a single row by its key columns. The values are bound to a prepared statement
+     * @param keyColumns the key columns, for example the columns of a combined primary key
+     * @param keyValues the values of the key columns, in the same order as the columns
+     * @return the row or null if no row with this key exists
+     */
+    @Nullable
+    public T getByKey(String[] keyColumns, Object[] keyValues) {
+        if (keyColumns.length < 1 || keyColumns.length != keyValues.length) {
+            throw new IllegalArgumentException("Invalid key: " + keyColumns.length + " columns, " + keyValues.length + " values");
+        }
+
+        WhereQuery<T> query = Query.from(this).select().where(keyColumns[0], Query.eq("?"));
+        for (int i = 1; i < keyColumns.length; i++) {
+            query = query.and(keyColumns[i], Query.eq("?"));
+        }
+        return query.get(keyValues);
+    }
+
+    /**
+     * Read a single column as int[] without deserializing any rows. <code>NULL</code> values will be 0
+     * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
+     * @param column the label of the column to read
+     * @param bindings the {@link PreparedStatement} bindings
+     * @return the values of the column
+     */
+    public int[] getIntColumn(String sql, String column, @Nullable Object... bindings) {
+        IntStream.Builder values = IntStream.builder();
+        readColumn(sql, column, bindings, (rs, index) -> values.add(rs.getInt(index)));
+        return values.build().toArray();
+    }
+
+    /**
+     * Read a single column as long[] without deserializing any rows. <code>NULL</code> values will be 0
+     * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
+     * @param column the label of the column to read
+     * @param bindings the {@link PreparedStatement} bindings
+     * @return the values of the column
+     */
+    public long[] getLongColumn(String sql, String column, @Nullable Object... bindings) {
+        LongStream.Builder values = LongStream.builder();
+        readColumn(sql, column, bindings, (rs, index) -> values.add(rs.getLong(index)));
+        return values.build().toArray();
+    }
+
+    /**
+     * Read a single column as double[] without deserializing any rows. <code>NULL</code> values will be 0
+     * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
+     * @param column the label of the column to read
+     * @param bindings the {@link PreparedStatement} bindings
+     * @return the values of the column
+     */
+    public double[] getDoubleColumn(String sql, String column, @Nullable Object... bindings) {
+        DoubleStream.Builder values = DoubleStream.builder();
+        readColumn(sql, column, bindings, (rs, index) -> values.add(rs.getDouble(index)));
+        return values.build().toArray();
+    }
+
+    /**
+     * Stream a binary column of each row while the {@link ResultSet} is still open, so large values are never copied into the heap<br/>
+     * The stream is only valid inside of the consumer, <code>NULL</code> values are passed as null
+     * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
+     * @param column the label of the column to read
+     * @param consumer called with the stream of each row
+     * @param bindings the {@link PreparedStatement} bindings
+     */
+    public void readBinary(String sql, String column, Consumer<InputStream> consumer, @Nullable Object... bindings) {
+        readColumn(sql, column, bindings, (rs, index) -> consumer.accept(rs.getBinaryStream(index)));
+    }
+
+    private void readColumn(String sql, String column, @Nullable Object[] bindings, ColumnReader reader) {
+        try (PreparedStatement statement = createPreparedStatement(sql, bindings); ResultSet rs = statement.executeQuery()) {
+            int index = rs.findColumn(column);
+            while (rs.next()) {
+                reader.read(rs, index);
+            }
+        } catch (SQLException e) {
+            db.onSqlException(e);
+            System.out.println("Couldn't execute SQL query: " + sqlToString(sql, bindings));
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the result of the given query mapped to a projection class
+     * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
+     * @param projectionType the projection class, see {@link ProjectionMapper}
+     * @param bindings the {@link PreparedStatement} bindings
+     * @return the projections
+     */
+    public <P> List<P> getProjections(String sql, Class<P> projectionType, @Nullable Object... bindings) {
+        ProjectionMapper<P> mapper = ProjectionMapper.of(projectionType);
+        try (PreparedStatement statement = createPreparedStatement(sql, bindings); ResultSet rs = statement.executeQuery()) {
+            return mapper.readAll(db, rs);
+        } catch (SQLException e) {
+            db.onSqlException(e);
+            System.out.println("Couldn't execute SQL query: " + sqlToString(sql, bindings));
+            throw new RuntimeException(e);
+        }
+    }
+
     protected void validateConnection() {
         if (!db.isConnected()) {
             throw new IllegalStateException("DB not connected");
@@ -277,9 +387,67 @@ public abstract class AbstractTable<T extends Row> {
         return db.insert(this, row);
     }
 
+    /**
+     * Insert a row to the table or update the non-primary key columns of the existing row with the same primary or
+     * unique key
+     * @param row the row to insert
+     * @return the {@link T} object, auto-incremented fields are only set if the row has been inserted
+     */
+    public T upsert(T row) {
+        return db.upsert(this, row);
+    }
+
+    /**
+     * Insert multiple rows to the table<br/>
+     * The rows are inserted as a single batch if a {@link KeyGenerator} has been set or there are no auto increment columns
+     * @param rows the rows to insert
+     * @return the {@link T} objects with auto-incremented fields
+     */
+    public List<T> insertAll(List<T> rows) {
+        return db.insertAll(this, rows);
+    }
+
+    /**
+     * Insert multiple rows to the table as a single batch<br/>
+     * Unlike {@link #insertAll(List)}, database generated keys are not read back, so auto increment fields stay unset
+     * unless a {@link KeyGenerator} has been set
+     * @param rows the rows to insert
+     */
+    public void insertBatch(List<T> rows) {
+        db.insertBatch(this, rows);
+    }
+
+    /**
+     * @return the {@link KeyGenerator} for auto increment columns or null if the database generates the keys
+     */
+    @Nullable
+    public KeyGenerator getKeyGenerator() {
+        return keyGenerator;
+    }
+
+    /**
+     * Set the client side {@link KeyGenerator} for the {@link Column#autoIncrement()} columns of this table<br/>
+     * Rows which already have a key set on insert will keep it
+     * @param keyGenerator the key generator or null if the database should generate the keys
+     */
+    public void setKeyGenerator(@Nullable KeyGenerator keyGenerator) {
+        this.keyGenerator = keyGenerator;
+    }
+
     protected T setFieldFromResultSet(T instance, ResultSet rs, Field f, String columnName) {
         Column column = FieldCache.getAnnotation(f, Column.class);
         Object value;
+
+        SqlTypeConverter converter = getTypeConverter(db.getClass(), f.getType());
+        if (converter != null) {
+            try {
+                f.set(instance, converter.read(db, rs, columnName, f.getType()));
+            } catch (IllegalAccessException | SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return instance;
+        }
+
         try {
             value = rs.getObject(columnName, f.getType());
             if (value == null) {
@@ -336,24 +504,29 @@ public abstract class AbstractTable<T extends Row> {
     }
 
     protected T setFieldsFromResultSet(T instance, ResultSet rs) {
-        List<Field> fields = ReflectionUtil.getAllFields(getRowClass());
-        for (Field f : fields) {
-            Column column = FieldCache.getAnnotation(f, Column.class);
-            if (column == null) {
+        try {
+            return setFieldsFromResultSet(instance, rs, getColumnLabels(rs));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param instance the instance to fill
+     * @param rs the {@link ResultSet} positioned on the row to read
+     * @param columns the column labels of the {@link ResultSet}, see {@link #getColumnLabels(ResultSet)}
+     * @return the instance
+     */
+    protected T setFieldsFromResultSet(T instance, ResultSet rs, Set<String> columns) {
+        for (ColumnMetadata column : getMetadata().getColumns()) {
+            if (!columns.contains(column.getName())) {
+                //Select query may not include this column
                 continue;
             }
-            Object value = null;
             try {
-                String name = StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
-                if (!hasColumn(rs, name)) {
-                    //Select query may not include this column
-                    continue;
-                }
-                setFieldFromResultSet(instance, rs, f, name);
+                setFieldFromResultSet(instance, rs, column.getField(), column.getName());
             } catch (Exception e) {
-                throw new RuntimeException(
-                        "Couldn't set value \"" + (value == null ? "null" : value.toString()) + "\" for field: " + getRowClass().getName()
-                        + "." + f.getName() + ": ", e);
+                throw new RuntimeException("Couldn't set value for field: " + getRowClass().getName() + "." + column.getField().getName() + ": ", e);
             }
         }
         return instance;
@@ -361,24 +534,21 @@ public abstract class AbstractTable<T extends Row> {
 
     protected List<T> deserializeResultSet(ResultSet r) {
         List<T> result = new ArrayList<>();
-        Constructor<?> ctor;
-        Object instance;
+        TableMetadata<T> metadata = getMetadata();
         try {
-            ctor = getRowClass().getConstructor();
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException("Invalid row class: " + getRowClass().getName() + ": Constructor shouldn't accept arguments!");
-        }
-        try {
-            while (r.next()) {
-                try {
-                    instance = ctor.newInstance();
-                } catch (Exception e) {
-                    throw new RuntimeException("Deserializing failed: ", e);
+            Set<String> columns = getColumnLabels(r);
+            GeneratedRowMapper<T> mapper = metadata.getGeneratedMapper();
+            if (mapper != null && columns.containsAll(Arrays.asList(mapper.getColumnNames()))) {
+                while (r.next()) {
+                    result.add(mapper.read(r));
                 }
+                return result;
+            }
 
-                setFieldsFromResultSet((T) instance, r);
-
-                result.add((T) instance);
+            while (r.next()) {
+                T instance = metadata.newInstance();
+                setFieldsFromResultSet(instance, r, columns);
+                result.add(instance);
             }
         } catch (SQLException e) {
             throw new RuntimeException("An error occurred while deserializing " + getRowClass().getName() + ": ", e);
@@ -390,16 +560,27 @@ public abstract class AbstractTable<T extends Row> {
      * @return the {@link Class}&lt;{@link T}&gt; representation of {@link T}
      */
     public Class<T> getRowClass() {
-        Object superclass = getClass().getGenericSuperclass();
+        return (Class<T>) ROW_CLASSES.get(getClass());
+    }
+
+    /**
+     * @return the cached {@link TableMetadata} of {@link #getRowClass()}
+     */
+    public TableMetadata<T> getMetadata() {
+        return TableMetadata.of(getRowClass());
+    }
+
+    private static Class<?> resolveRowClass(Class<?> tableClass) {
+        Object superclass = tableClass.getGenericSuperclass();
         if (superclass instanceof Class) {
-            return (Class<T>) superclass;
+            return (Class<?>) superclass;
         }
-        ParameterizedType genericSuperclass = (ParameterizedType) getClass().getGenericSuperclass();
+        ParameterizedType genericSuperclass = (ParameterizedType) superclass;
         Type type = genericSuperclass.getActualTypeArguments()[0];
         if (type instanceof Class) {
-            return (Class<T>) type;
+            return (Class<?>) type;
         } else if (type instanceof ParameterizedType) {
-            return (Class<T>) ((ParameterizedType) type).getRawType();
+            return (Class<?>) ((ParameterizedType) type).getRawType();
         }
         throw new IllegalStateException("Unknown type: " + type.getTypeName());
     }
@@ -414,11 +595,12 @@ public abstract class AbstractTable<T extends Row> {
     @Deprecated
     @SuppressWarnings("deprecation")
     public ResultSet executeQuery(String sql, @Nullable Object... bindings) {
-        sql = sql.replaceAll("\\Q{TABLE}\\E", getName());
+        sql = db.toNativeSql(sql.replaceAll("\\Q{TABLE}\\E", getName()));
         try {
             validateConnection();
             PreparedStatement statement = db.getConnection().prepareStatement(sql, ResultSet.TYPE_SCROLL_INSENSITIVE,
                                                                               ResultSet.CONCUR_UPDATABLE);
+            statement.closeOnCompletion();
             parseBindings(statement, bindings);
             ResultSet rs;
             try {
@@ -426,16 +608,20 @@ public abstract class AbstractTable<T extends Row> {
             } catch (Exception e) {
                 e.printStackTrace();
                 if (e instanceof SQLNonTransientConnectionException && !reconnected) {
+                    Connection lost = null;
                     try {
+                        lost = statement.getConnection();
                         statement.close();
-                        db.close();
                     } catch (Exception ex) {
                         ex.printStackTrace();
                     }
-                    db.connect();
+                    db.reconnect(lost);
                     reconnected = true;
                     return executeQuery(sql, bindings);
                 }
+                if (e instanceof SQLException) {
+                    db.onSqlException((SQLException) e);
+                }
                 if (e instanceof RuntimeException) {
                     throw (RuntimeException) e;
                 }
@@ -444,6 +630,7 @@ public abstract class AbstractTable<T extends Row> {
             reconnected = false;
             return rs;
         } catch (SQLException e) {
+            db.onSqlException(e);
             System.out.println("Couldn't execute SQL query: " + sqlToString(sql, bindings));
             throw new RuntimeException(e);
         }
@@ -455,7 +642,7 @@ public abstract class AbstractTable<T extends Row> {
 
     public PreparedStatement createPreparedStatement(String sql, Integer flags, @Nullable Object... bindings) {
         validateConnection();
-        sql = sql.replaceAll("\\Q{TABLE}\\E", getName());
+        sql = db.toNativeSql(sql.replaceAll("\\Q{TABLE}\\E", getName()));
         try {
             PreparedStatement statement;
             if (flags != null) {
@@ -471,11 +658,16 @@ public abstract class AbstractTable<T extends Row> {
         }
     }
 
-    private void parseBindings(PreparedStatement statement, Object... bindings) throws SQLException {
+    void parseBindings(PreparedStatement statement, Object... bindings) throws SQLException {
         if (bindings != null) {
             int i = 1;
             for (Object s : bindings) {
-                statement.setObject(i, s);
+                SqlTypeConverter converter = s == null ? null : getTypeConverter(db.getClass(), s.getClass());
+                if (converter != null) {
+                    converter.bind(db, statement, i, s);
+                } else {
+                    statement.setObject(i, s);
+                }
                 i++;
             }
         }
@@ -485,28 +677,35 @@ public abstract class AbstractTable<T extends Row> {
      * Executes a plain SQL update statement with given bindings<br/>
      * @param sql the sql query, <code>{TABLE}</code> will be replaced with {@link #getName()}
      * @param bindings the {@link PreparedStatement} bindings
+     * @return the count of affected rows
      * @deprecated Use the {@link Query} API with {@link Query#execute(Object...)})}
      */
     @Deprecated
     @SuppressWarnings("deprecation")
-    public void executeUpdate(String sql, @Nullable Object... bindings) {
+    public int executeUpdate(String sql, @Nullable Object... bindings) {
         validateConnection();
+        int affectedRows;
         try {
             PreparedStatement statement = createPreparedStatement(sql, bindings);
             try {
-                statement.executeUpdate();
+                affectedRows = statement.executeUpdate();
+                statement.close();
             } catch (Exception e) {
                 e.printStackTrace();
                 if (e instanceof SQLNonTransientConnectionException && !reconnected) {
+                    Connection lost = null;
                     try {
+                        lost = statement.getConnection();
                         statement.close();
-                        db.close();
                     } catch (Exception ex) {
                         ex.printStackTrace();
                     }
-                    db.connect();
+                    db.reconnect(lost);
                     reconnected = true;
-                    executeUpdate(sql, bindings);
+                    return executeUpdate(sql, bindings);
+                }
+                if (e instanceof SQLException) {
+                    db.onSqlException((SQLException) e);
                 }
                 if (e instanceof RuntimeException) {
                     throw (RuntimeException) e;
@@ -518,6 +717,7 @@ public abstract class AbstractTable<T extends Row> {
             throw new RuntimeException(e);
         }
         reconnected = false;
+        return affectedRows;
     }
 
 
@@ -546,4 +746,9 @@ public abstract class AbstractTable<T extends Row> {
             return false;
         }
     }
+
+    private interface ColumnReader {
+
+        void read(ResultSet rs, int index) throws SQLException;
+    }
 }
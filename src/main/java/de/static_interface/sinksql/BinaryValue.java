@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A binary column value which doesn't need to be held in memory as a whole when it is written<br/>
+ * On writes, the value is streamed to the database with <code>setBinaryStream</code>. Values of mapped rows are
+ * held as byte arrays, since the {@link java.sql.ResultSet} is closed once the row has been mapped. Use
+ * {@link de.static_interface.sinksql.query.Query#readBinary(String, java.util.function.Consumer, Object...)} to stream
+ * large values while the {@link java.sql.ResultSet} is still open instead.
+ */
+public abstract class BinaryValue {
+
+    /**
+     * @param data the data, not copied
+     * @return a value backed by the given array
+     */
+    public static BinaryValue of(final byte[] data) {
+        return new BinaryValue() {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(data);
+            }
+
+            @Override
+            public long length() {
+                return data.length;
+            }
+
+            @Override
+            public byte[] toByteArray() {
+                return data;
+            }
+        };
+    }
+
+    /**
+     * @param in the stream to read from, can only be read once
+     * @param length the amount of bytes of the stream or -1 if unknown
+     * @return a value backed by the given stream
+     */
+    public static BinaryValue of(final InputStream in, final long length) {
+        return new BinaryValue() {
+            private boolean consumed;
+
+            @Override
+            public synchronized InputStream getInputStream() {
+                if (consumed) {
+                    throw new IllegalStateException("Stream has already been consumed");
+                }
+                consumed = true;
+                return in;
+            }
+
+            @Override
+            public long length() {
+                return length;
+            }
+        };
+    }
+
+    /**
+     * @return a stream of the content
+     */
+    public abstract InputStream getInputStream();
+
+    /**
+     * @return the length in bytes or -1 if unknown
+     */
+    public abstract long length();
+
+    /**
+     * Copies the whole content into the heap
+     * @return the content
+     */
+    public byte[] toByteArray() {
+        InputStream in = getInputStream();
+        try {
+            long length = length();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length <= Integer.MAX_VALUE ? (int) length : 8192);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            in.close();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the content as read-only {@link ByteBuffer}
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(toByteArray()).asReadOnlyBuffer();
+    }
+}
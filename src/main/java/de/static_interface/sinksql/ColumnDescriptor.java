@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.annotation.ForeignKey;
+import de.static_interface.sinksql.annotation.FullTextIndex;
+import de.static_interface.sinksql.annotation.Index;
+import de.static_interface.sinksql.annotation.TableIndex;
+import de.static_interface.sinksql.annotation.UniqueKey;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Static schema descriptor of a single column, generated together with the {@link GeneratedRowMapper}<br/>
+ * It holds the annotations of the field, so {@link TableMetadata} doesn't have to scan the row class by reflection.
+ * The factory methods create the annotation instances, their parameters are the annotation values in declaration order.
+ * These instances are not meant to be compared with instances created by the JVM.
+ */
+public final class ColumnDescriptor {
+
+    /**
+     * The field annotations which are described, missing ones are known to be absent
+     */
+    static final List<Class<? extends Annotation>> ANNOTATION_TYPES = Collections.unmodifiableList(Arrays.asList(
+            Column.class, Nullable.class, UniqueKey.class, ForeignKey.class, Index.class, FullTextIndex.class));
+
+    private final String fieldName;
+    private final Annotation[] annotations;
+
+    /**
+     * @param fieldName the name of the public field
+     * @param annotations the annotations of the field
+     */
+    public ColumnDescriptor(String fieldName, Annotation... annotations) {
+        this.fieldName = fieldName;
+        this.annotations = annotations;
+    }
+
+    /**
+     * @return the name of the public field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @param type the annotation type
+     * @return the annotation of the field or null if the field doesn't have it
+     */
+    @Nullable
+    public <A extends Annotation> A getAnnotation(Class<A> type) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == type) {
+                return (A) annotation;
+            }
+        }
+        return null;
+    }
+
+    public static Column column(String name, boolean autoIncrement, boolean primaryKey, boolean uniqueKey, String comment, String defaultValue,
+                                boolean unsigned, boolean zerofill, int keyLength) {
+        return new ColumnValue(name, autoIncrement, primaryKey, uniqueKey, comment, defaultValue, unsigned, zerofill, keyLength);
+    }
+
+    public static Nullable nullable() {
+        return NullableValue.INSTANCE;
+    }
+
+    public static UniqueKey uniqueKey(int combinationId) {
+        return new UniqueKeyValue(combinationId);
+    }
+
+    public static ForeignKey foreignKey(Class<? extends AbstractTable> table, String column, CascadeAction onDelete, CascadeAction onUpdate) {
+        return new ForeignKeyValue(table, column, onDelete, onUpdate);
+    }
+
+    public static Index index(String name, int order, int length) {
+        return new IndexValue(name, order, length);
+    }
+
+    public static FullTextIndex fullTextIndex(String name) {
+        return new FullTextIndexValue(name);
+    }
+
+    public static TableIndex tableIndex(String name, String[] columns, int[] lengths, String[] include) {
+        return new TableIndexValue(name, columns, lengths, include);
+    }
+
+    private static final class ColumnValue implements Column {
+
+        private final String name;
+        private final boolean autoIncrement;
+        private final boolean primaryKey;
+        private final boolean uniqueKey;
+        private final String comment;
+        private final String defaultValue;
+        private final boolean unsigned;
+        private final boolean zerofill;
+        private final int keyLength;
+
+        private ColumnValue(String name, boolean autoIncrement, boolean primaryKey, boolean uniqueKey, String comment, String defaultValue,
+                            boolean unsigned, boolean zerofill, int keyLength) {
+            this.name = name;
+            this.autoIncrement = autoIncrement;
+            this.primaryKey = primaryKey;
+            this.uniqueKey = uniqueKey;
+            this.comment = comment;
+            this.defaultValue = defaultValue;
+            this.unsigned = unsigned;
+            this.zerofill = zerofill;
+            this.keyLength = keyLength;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean autoIncrement() {
+            return autoIncrement;
+        }
+
+        @Override
+        public boolean primaryKey() {
+            return primaryKey;
+        }
+
+        @Override
+        @Deprecated
+        public boolean uniqueKey() {
+            return uniqueKey;
+        }
+
+        @Override
+        public String comment() {
+            return comment;
+        }
+
+        @Override
+        public String defaultValue() {
+            return defaultValue;
+        }
+
+        @Override
+        public boolean unsigned() {
+            return unsigned;
+        }
+
+        @Override
+        public boolean zerofill() {
+            return zerofill;
+        }
+
+        @Override
+        public int keyLength() {
+            return keyLength;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Column.class;
+        }
+    }
+
+    private static final class NullableValue implements Nullable {
+
+        private static final NullableValue INSTANCE = new NullableValue();
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Nullable.class;
+        }
+    }
+
+    private static final class UniqueKeyValue implements UniqueKey {
+
+        private final int combinationId;
+
+        private UniqueKeyValue(int combinationId) {
+            this.combinationId = combinationId;
+        }
+
+        @Override
+        public int combinationId() {
+            return combinationId;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return UniqueKey.class;
+        }
+    }
+
+    private static final class ForeignKeyValue implements ForeignKey {
+
+        private final Class<? extends AbstractTable> table;
+        private final String column;
+        private final CascadeAction onDelete;
+        private final CascadeAction onUpdate;
+
+        private ForeignKeyValue(Class<? extends AbstractTable> table, String column, CascadeAction onDelete, CascadeAction onUpdate) {
+            this.table = table;
+            this.column = column;
+            this.onDelete = onDelete;
+            this.onUpdate = onUpdate;
+        }
+
+        @Override
+        public Class<? extends AbstractTable> table() {
+            return table;
+        }
+
+        @Override
+        public String column() {
+            return column;
+        }
+
+        @Override
+        public CascadeAction onDelete() {
+            return onDelete;
+        }
+
+        @Override
+        public CascadeAction onUpdate() {
+            return onUpdate;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return ForeignKey.class;
+        }
+    }
+
+    private static final class IndexValue implements Index {
+
+        private final String name;
+        private final int order;
+        private final int length;
+
+        private IndexValue(String name, int order, int length) {
+            this.name = name;
+            this.order = order;
+            this.length = length;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Index.class;
+        }
+    }
+
+    private static final class FullTextIndexValue implements FullTextIndex {
+
+        private final String name;
+
+        private FullTextIndexValue(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return FullTextIndex.class;
+        }
+    }
+
+    private static final class TableIndexValue implements TableIndex {
+
+        private final String name;
+        private final String[] columns;
+        private final int[] lengths;
+        private final String[] include;
+
+        private TableIndexValue(String name, String[] columns, int[] lengths, String[] include) {
+            this.name = name;
+            this.columns = columns;
+            this.lengths = lengths;
+            this.include = include;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String[] columns() {
+            return columns.clone();
+        }
+
+        @Override
+        public int[] lengths() {
+            return lengths.clone();
+        }
+
+        @Override
+        public String[] include() {
+            return include.clone();
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return TableIndex.class;
+        }
+    }
+}
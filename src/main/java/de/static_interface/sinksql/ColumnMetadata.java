@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.annotation.ForeignKey;
+import de.static_interface.sinksql.annotation.Index;
+import de.static_interface.sinksql.annotation.UniqueKey;
+import de.static_interface.sinksql.util.StringUtil;
+
+import java.lang.reflect.Field;
+
+import javax.annotation.Nullable;
+
+/**
+ * Describes a single {@link Column} of a {@link Row} class
+ * @see TableMetadata
+ */
+public final class ColumnMetadata {
+
+    private final Field field;
+    private final String name;
+    private final Column column;
+    private final boolean nullable;
+    private final UniqueKey uniqueKey;
+    private final ForeignKey foreignKey;
+    private final Index index;
+
+    ColumnMetadata(Field field, Column column) {
+        this.field = field;
+        this.column = column;
+        this.name = StringUtil.isEmptyOrNull(column.name()) ? field.getName() : column.name();
+        this.nullable = FieldCache.getAnnotation(field, Nullable.class) != null;
+        this.uniqueKey = FieldCache.getAnnotation(field, UniqueKey.class);
+        this.foreignKey = FieldCache.getAnnotation(field, ForeignKey.class);
+        this.index = FieldCache.getAnnotation(field, Index.class);
+        field.setAccessible(true);
+    }
+
+    /**
+     * @return the name of the column
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the field which holds the column value
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return the java type of the column
+     */
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * @return the {@link Column} annotation of the field
+     */
+    public Column getColumn() {
+        return column;
+    }
+
+    /**
+     * @return true if the field has been annotated with {@link Nullable}
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean isPrimaryKey() {
+        return column.primaryKey();
+    }
+
+    public boolean isAutoIncrement() {
+        return column.autoIncrement();
+    }
+
+    /**
+     * @return true if the column is part of any key
+     */
+    @SuppressWarnings("deprecation")
+    public boolean isKey() {
+        return column.primaryKey() || column.uniqueKey() || foreignKey != null || uniqueKey != null;
+    }
+
+    @Nullable
+    public UniqueKey getUniqueKey() {
+        return uniqueKey;
+    }
+
+    @Nullable
+    public ForeignKey getForeignKey() {
+        return foreignKey;
+    }
+
+    @Nullable
+    public Index getIndex() {
+        return index;
+    }
+
+    /**
+     * @param row the row to read
+     * @return the column value of the given row
+     */
+    public Object get(Object row) {
+        try {
+            return field.get(row);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param row the row to modify
+     * @param value the new column value
+     */
+    public void set(Object row, Object value) {
+        try {
+            field.set(row, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
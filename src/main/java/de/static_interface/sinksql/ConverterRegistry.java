@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores converters per database type and value type<br/>
+ * Lookups walk the interfaces and superclasses of the value type and the superclasses of the database type.
+ * Each resolved (database type, value type) pair is cached, including pairs without converter, so repeated lookups are O(1).
+ * Registering a converter invalidates the cache. Safe to use from multiple threads.
+ * @param <C> the converter type
+ */
+public class ConverterRegistry<C> {
+
+    private static final Object NONE = new Object();
+
+    private final String converterName;
+    private final Map<Class<?>, Map<Class<?>, C>> converters = new ConcurrentHashMap<>();
+    private volatile ClassValue<Map<Class<?>, Object>> resolved = newCache();
+
+    /**
+     * @param converterName the name of the converter type, used in error messages
+     */
+    public ConverterRegistry(String converterName) {
+        this.converterName = converterName;
+    }
+
+    private static ClassValue<Map<Class<?>, Object>> newCache() {
+        return new ClassValue<Map<Class<?>, Object>>() {
+            @Override
+            protected Map<Class<?>, Object> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    /**
+     * @param databaseType the database type, subclasses will inherit the converter
+     * @param objectType the value type, subclasses and implementations will inherit the converter
+     * @param converter the converter
+     * @throws IllegalStateException if a converter for this pair has already been registered
+     */
+    public synchronized void register(Class<?> databaseType, Class<?> objectType, C converter) {
+        if (databaseType != Database.class && !Database.class.isAssignableFrom(databaseType)) {
+            throw new ClassCastException("Can't cast class \"" + databaseType.getName() + "\" to \"" + Database.class.getName() + "\"!");
+        }
+        Map<Class<?>, C> databaseConverters = converters.get(databaseType);
+        if (databaseConverters == null) {
+            databaseConverters = new ConcurrentHashMap<>();
+        }
+
+        if (databaseConverters.get(objectType) != null) {
+            throw new IllegalStateException(
+                    "Class \"" + objectType.getSimpleName() + "\" already has a " + converterName + " for database type: \"" + databaseType.getSimpleName()
+                    + "\"");
+        }
+
+        databaseConverters.put(objectType, converter);
+        converters.put(databaseType, databaseConverters);
+        resolved = newCache();
+    }
+
+    /**
+     * @param databaseType the database type
+     * @param objectType the value type
+     * @return the converter or null if no converter is available
+     */
+    @Nullable
+    public C get(Class<?> databaseType, Class<?> objectType) {
+        Map<Class<?>, Object> cache = resolved.get(databaseType);
+        Object converter = cache.get(objectType);
+        if (converter == null) {
+            converter = resolve(databaseType, objectType);
+            if (converter == null) {
+                converter = NONE;
+            }
+            cache.put(objectType, converter);
+        }
+        return converter == NONE ? null : (C) converter;
+    }
+
+    private C resolve(Class<?> databaseType, Class<?> objectType) {
+        Map<Class<?>, C> databaseConverters = converters.get(databaseType);
+
+        if (databaseConverters != null) {
+            if (databaseConverters.containsKey(objectType)) {
+                return databaseConverters.get(objectType);
+            }
+
+            // No converter for this class available, search for of the interfaces
+
+            Class<?> matchedClass = objectType;
+            int found = 0;
+
+            for (Class<?> clazz : objectType.getInterfaces()) {
+                if (databaseConverters.containsKey(clazz)) {
+                    found++;
+                    matchedClass = clazz;
+                }
+            }
+
+            if (found > 0) {
+                if (found > 1) {
+                    throw new IllegalStateException(
+                            "Found multiple possible " + converterName + "s for class: " + objectType.getSimpleName() + " in database: " + databaseType
+                                    .getSimpleName());
+                }
+
+                return databaseConverters.get(matchedClass);
+            }
+
+            // Loop trough all superclasses, since there is also no converter for the interface
+            while (true) {
+                if (databaseConverters.containsKey(matchedClass)) {
+                    break;
+                }
+
+                matchedClass = matchedClass.getSuperclass();
+                if (matchedClass == null) {
+                    break;
+                }
+            }
+
+            if (matchedClass != null) {
+                return databaseConverters.get(matchedClass);
+            }
+        }
+
+        if (databaseType.getSuperclass() != null && (databaseType == Database.class ||
+                                                     Database.class.isAssignableFrom(databaseType.getSuperclass()))) {
+            return resolve(databaseType.getSuperclass(), objectType);
+        }
+
+        return null;
+    }
+}
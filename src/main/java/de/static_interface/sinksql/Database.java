@@ -19,17 +19,47 @@ package de.static_interface.sinksql;
 
 import com.zaxxer.hikari.HikariDataSource;
 import de.static_interface.sinksql.query.Query;
+import de.static_interface.sinksql.schema.TableDependencies;
+import de.static_interface.sinksql.util.StringUtil;
 
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
 public abstract class Database {
+    private static final int STATE_UNKNOWN = 0;
+    private static final int STATE_CONNECTED = 1;
+    private static final int STATE_DISCONNECTED = 2;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final ScheduledExecutorService VALIDATOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SinkSQL-Keepalive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final DatabaseConnectionInfo info;
     protected HikariDataSource dataSource;
-    protected Connection connection;
+    protected volatile Connection connection;
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+    private volatile int state = STATE_UNKNOWN;
+    private volatile boolean reconnecting;
+    private volatile boolean closedByUser;
+    private final AtomicBoolean validationQueued = new AtomicBoolean();
+    private volatile ScheduledFuture<?> validationTask;
 
     /**
      * @param info the connection info
@@ -49,13 +79,15 @@ public abstract class Database {
     protected abstract void setupConfig();
 
     /**
-     * Connect to the database
+     * Connect to the database<br/>
+     * Implementations should be synchronized on the database, so they can't interleave with a background reconnect
      * @throws SQLException
      */
     public abstract void connect() throws SQLException;
 
     /**
-     * Close the connection of the database
+     * Close the connection of the database<br/>
+     * Implementations should be synchronized on the database, so they can't interleave with a background reconnect
      * @throws SQLException
      */
     public abstract void close() throws SQLException;
@@ -69,10 +101,24 @@ public abstract class Database {
     }
 
     /**
-     * @return the {@link Connection}
+     * @return the {@link Connection}, or the connection bound to the current thread
      */
     public Connection getConnection() {
-        return connection;
+        Connection bound = boundConnection.get();
+        return bound != null ? bound : connection;
+    }
+
+    /**
+     * Binds a connection to the current thread, which will be returned by {@link #getConnection()} instead of the
+     * shared connection. Used to run statements on separate pool connections
+     * @param connection the connection or null to unbind
+     */
+    protected void bindConnection(@Nullable Connection connection) {
+        if (connection == null) {
+            boundConnection.remove();
+        } else {
+            boundConnection.set(connection);
+        }
     }
 
     /**
@@ -81,6 +127,87 @@ public abstract class Database {
      */
     public abstract String parseQuery(Query tQuery);
 
+    /**
+     * Converts a hand-written statement to the SQL dialect of this database
+     * @param sql the statement, identifiers may be quoted with MySQL style backticks
+     * @return the statement for this database
+     */
+    public String toNativeSql(String sql) {
+        return sql;
+    }
+
+    /**
+     * Executes a select query, see {@link Query#getResults(Object...)}
+     * @param query the query
+     * @param bindings the bindings of the query
+     * @return the resulting rows
+     */
+    @SuppressWarnings("deprecation")
+    public <T extends Row> T[] getResults(Query<T> query, Object... bindings) {
+        return query.getMasterQuery().getTable().get(query.toSql(), bindings);
+    }
+
+    /**
+     * Executes an update or delete query, see {@link Query#execute(Object...)}
+     * @param query the query
+     * @param bindings the bindings of the query
+     * @return the count of affected rows
+     */
+    @SuppressWarnings("deprecation")
+    public <T extends Row> int execute(Query<T> query, Object... bindings) {
+        return query.getMasterQuery().getTable().executeUpdate(query.toSql(), bindings);
+    }
+
+    /**
+     * @param query the select query
+     * @param column the column to read
+     * @param bindings the bindings of the query
+     * @return the values of the column, see {@link Query#intColumn(String, Object...)}
+     */
+    public <T extends Row> int[] getIntColumn(Query<T> query, String column, Object... bindings) {
+        return query.getMasterQuery().getTable().getIntColumn(query.toSql(), column, bindings);
+    }
+
+    /**
+     * @param query the select query
+     * @param column the column to read
+     * @param bindings the bindings of the query
+     * @return the values of the column, see {@link Query#longColumn(String, Object...)}
+     */
+    public <T extends Row> long[] getLongColumn(Query<T> query, String column, Object... bindings) {
+        return query.getMasterQuery().getTable().getLongColumn(query.toSql(), column, bindings);
+    }
+
+    /**
+     * @param query the select query
+     * @param column the column to read
+     * @param bindings the bindings of the query
+     * @return the values of the column, see {@link Query#doubleColumn(String, Object...)}
+     */
+    public <T extends Row> double[] getDoubleColumn(Query<T> query, String column, Object... bindings) {
+        return query.getMasterQuery().getTable().getDoubleColumn(query.toSql(), column, bindings);
+    }
+
+    /**
+     * @param query the select query
+     * @param column the binary column to read
+     * @param consumer called with the stream of each row, see {@link Query#readBinary(String, Consumer, Object...)}
+     * @param bindings the bindings of the query
+     */
+    public <T extends Row> void readBinary(Query<T> query, String column, Consumer<InputStream> consumer, Object... bindings) {
+        query.getMasterQuery().getTable().readBinary(query.toSql(), column, consumer, bindings);
+    }
+
+    /**
+     * @param query the select query
+     * @param projectionType the projection class
+     * @param bindings the bindings of the query
+     * @return the projected results, see {@link Query#as(Class)}
+     */
+    public <T extends Row, P> List<P> getProjections(Query<T> query, Class<P> projectionType, Object... bindings) {
+        return query.getMasterQuery().getTable().getProjections(query.toSql(), projectionType, bindings);
+    }
+
     /**
      * Escapes a string and adds "'s to start and end
      * @param s the string to convert
@@ -88,14 +215,170 @@ public abstract class Database {
      */
     public abstract String stringify(String s);
 
+    /**
+     * @param bytes the bytes to convert
+     * @return the bytes as binary SQL literal
+     */
+    public String binaryToSql(byte[] bytes) {
+        return "X'" + StringUtil.toHex(bytes) + "'";
+    }
+
     public abstract <T extends Row> void createTable(AbstractTable<T> abstractTable);
 
+    /**
+     * Creates multiple tables with {@link AbstractTable#create()}, ordered by their foreign keys so referenced tables
+     * are created first
+     * @param tables the tables to create
+     * @throws SQLException if a table couldn't be created
+     */
+    public void createTables(Collection<? extends AbstractTable<?>> tables) throws SQLException {
+        for (List<AbstractTable<?>> level : TableDependencies.getCreationLevels(tables)) {
+            for (AbstractTable<?> table : level) {
+                table.create();
+            }
+        }
+    }
+
     public abstract <T extends Row> T insert(AbstractTable<T> abstractTable, T row);
 
     /**
+     * Insert a row or update the existing row with the same primary or unique key
+     * @param abstractTable the table to insert into
+     * @param row the row to insert
+     * @return the row with auto-incremented fields, these are only set if the row has been inserted
+     * @throws UnsupportedOperationException if the database doesn't support upserts
+     */
+    public <T extends Row> T upsert(AbstractTable<T> abstractTable, T row) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support upserts");
+    }
+
+    /**
+     * Insert multiple rows. Implementations may send the rows as a single batch if no database generated keys are needed
+     * @param abstractTable the table to insert into
+     * @param rows the rows to insert
+     * @return the rows with auto-incremented fields
+     */
+    public <T extends Row> List<T> insertAll(AbstractTable<T> abstractTable, List<T> rows) {
+        for (T row : rows) {
+            insert(abstractTable, row);
+        }
+        return rows;
+    }
+
+    /**
+     * Insert multiple rows without reading back database generated keys, see {@link AbstractTable#insertBatch(List)}
+     * @param abstractTable the table to insert into
+     * @param rows the rows to insert
+     */
+    public <T extends Row> void insertBatch(AbstractTable<T> abstractTable, List<T> rows) {
+        insertAll(abstractTable, rows);
+    }
+
+    /**
+     * Updates the connection state, implementations should call this after connecting and closing<br/>
+     * While connected, the connection is validated in the background and reestablished if it has been lost. Closing the
+     * database stops the validation. The validation only holds a weak reference, databases which are discarded without
+     * {@link #close()} stop being validated once they are garbage collected, but their pool isn't closed.
+     * @param connected true if the database has been connected
+     */
+    protected synchronized void setConnected(boolean connected) {
+        state = connected ? STATE_CONNECTED : STATE_DISCONNECTED;
+        if (connected) {
+            closedByUser = false;
+        } else if (!reconnecting) {
+            closedByUser = true;
+        }
+
+        if (connected && validationTask == null && dataSource != null) {
+            long interval = getValidationInterval();
+            ValidationTask task = new ValidationTask(this);
+            validationTask = VALIDATOR.scheduleWithFixedDelay(task, interval, interval, TimeUnit.MILLISECONDS);
+            task.future = validationTask;
+        } else if (closedByUser && validationTask != null) {
+            validationTask.cancel(false);
+            validationTask = null;
+        }
+    }
+
+    /**
+     * @return the interval of the background connection validation in milliseconds
+     */
+    protected long getValidationInterval() {
+        return TimeUnit.SECONDS.toMillis(30);
+    }
+
+    /**
+     * Reports a failed statement. Connection errors (SQLState class <code>08</code>) queue a validation, which
+     * reconnects the database if the connection has been lost. The database stays connected until then
+     * @param e the exception of the statement
+     */
+    protected void onSqlException(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (!(e instanceof SQLNonTransientConnectionException || e instanceof SQLTransientConnectionException
+              || sqlState != null && sqlState.startsWith("08"))) {
+            return;
+        }
+
+        if (validationTask != null && !closedByUser && validationQueued.compareAndSet(false, true)) {
+            VALIDATOR.execute(this::checkConnection);
+        }
+    }
+
+    /**
+     * Closes and connects the database again, unless it has been closed by {@link #close()} or another thread has
+     * already replaced the lost connection
+     * @param lost the connection which has been lost
+     * @throws SQLException if the database couldn't be connected
+     */
+    protected void reconnect(@Nullable Connection lost) throws SQLException {
+        synchronized (this) {
+            if (closedByUser || lost != connection) {
+                return;
+            }
+
+            reconnecting = true;
+            try {
+                close();
+                connect();
+            } finally {
+                reconnecting = false;
+            }
+        }
+    }
+
+    private void checkConnection() {
+        validationQueued.set(false);
+        if (closedByUser) {
+            return;
+        }
+
+        Connection connection = this.connection;
+        try {
+            if (connection != null && connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return;
+            }
+        } catch (SQLException ignored) {
+            // handled below
+        }
+
+        System.out.println("Lost connection to database, reconnecting...");
+        try {
+            reconnect(connection);
+        } catch (Exception e) {
+            e.printStackTrace(); // will be retried on the next validation
+        }
+    }
+
+    /**
+     * Doesn't touch the connection if the implementation tracks its state with {@link #setConnected(boolean)}
      * @return true if connected to database
      */
     public boolean isConnected() {
+        int state = this.state;
+        if (state != STATE_UNKNOWN) {
+            return state == STATE_CONNECTED;
+        }
+
         try {
             return getConnection() != null && !getConnection().isClosed();
         } catch (SQLException e) {
@@ -103,4 +386,24 @@ public abstract class Database {
             return false;
         }
     }
+
+    private static final class ValidationTask implements Runnable {
+
+        private final WeakReference<Database> database;
+        private volatile ScheduledFuture<?> future;
+
+        private ValidationTask(Database database) {
+            this.database = new WeakReference<>(database);
+        }
+
+        @Override
+        public void run() {
+            Database database = this.database.get();
+            if (database == null) {
+                future.cancel(false);
+                return;
+            }
+            database.checkConnection();
+        }
+    }
 }
@@ -19,26 +19,44 @@ package de.static_interface.sinksql;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 /**
- * The FieldCache has been added to improve SQL deserialisation speed
+ * The FieldCache has been added to improve SQL deserialisation speed<br/>
+ * Caches every requested annotation of a field, including missing ones. Safe to use from multiple threads
+ * @see TableMetadata
  */
 public class FieldCache {
 
-    private static Map<String, Annotation> cache = new HashMap<>();
+    private static final Object NONE = new Object();
+    private static final ConcurrentHashMap<Field, Map<Class<?>, Object>> cache = new ConcurrentHashMap<>();
 
     @Nullable
-    public static <T extends Annotation> T getAnnotation(Field f, Class<T> annotation) {
-        String name = f.getDeclaringClass().getName() + "." + f.getName();
-        if (cache.containsKey(name) && cache.get(name) != null && annotation.isAssignableFrom(cache.get(name).getClass())) {
-            return (T) cache.get(name);
+    public static <T extends Annotation> T getAnnotation(final Field f, final Class<T> annotation) {
+        Map<Class<?>, Object> annotations = cache.get(f);
+        if (annotations == null) {
+            annotations = cache.computeIfAbsent(f, k -> new ConcurrentHashMap<>());
         }
-        T value = f.getAnnotation(annotation);
-        cache.put(name, value);
-        return value;
+
+        Object value = annotations.get(annotation);
+        if (value == null) {
+            T a = f.getAnnotation(annotation);
+            value = a == null ? NONE : a;
+            annotations.put(annotation, value);
+        }
+        return value == NONE ? null : (T) value;
+    }
+
+    /**
+     * Stores an annotation which is already known, e.g. from a {@link ColumnDescriptor}
+     * @param f the field
+     * @param type the annotation type
+     * @param annotation the annotation or null if the field doesn't have it
+     */
+    static void put(Field f, Class<? extends Annotation> type, @Nullable Annotation annotation) {
+        cache.computeIfAbsent(f, k -> new ConcurrentHashMap<>()).put(type, annotation == null ? NONE : annotation);
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.TableIndex;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reflection-free reader and binder for a {@link Row} class<br/>
+ * Implementations are generated at compile time by the optional <code>sinksql-processor</code> artifact
+ * as <code>&lt;RowClass&gt;_SinkSqlMapper</code> in the package of the row class. {@link TableMetadata} picks them up automatically,
+ * rows without a generated mapper are handled by reflection. Mappers with {@link #getColumnDescriptors()} also replace the
+ * reflective scan of the row class when its {@link TableMetadata} is built.
+ * @param <T> the row type
+ */
+public interface GeneratedRowMapper<T> {
+
+    /**
+     * The suffix of generated mapper classes
+     */
+    String CLASS_SUFFIX = "_SinkSqlMapper";
+
+    /**
+     * @return the names of all columns, in the order used by {@link #bind(Object, PreparedStatement)}
+     */
+    String[] getColumnNames();
+
+    /**
+     * @return the schema descriptors of all columns, in the order of {@link #getColumnNames()}, or null if the mapper
+     * has been generated without them
+     */
+    @Nullable
+    default ColumnDescriptor[] getColumnDescriptors() {
+        return null;
+    }
+
+    /**
+     * @return the {@link TableIndex}es of the row class, only used if {@link #getColumnDescriptors()} is not null
+     */
+    default TableIndex[] getTableIndexes() {
+        return new TableIndex[0];
+    }
+
+    /**
+     * @return a new, empty row
+     */
+    T newInstance();
+
+    /**
+     * Read the current row of the {@link ResultSet}. The {@link ResultSet} has to contain all columns of {@link #getColumnNames()}
+     * @param rs the {@link ResultSet} positioned on the row to read
+     * @return the row
+     * @throws SQLException if reading fails
+     */
+    T read(ResultSet rs) throws SQLException;
+
+    /**
+     * Bind all column values of the row to the first parameters of the statement, in the order of {@link #getColumnNames()}
+     * @param row the row to bind
+     * @param ps the statement
+     * @throws SQLException if binding fails
+     */
+    void bind(T row, PreparedStatement ps) throws SQLException;
+}
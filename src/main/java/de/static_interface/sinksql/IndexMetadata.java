@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.Index;
+import de.static_interface.sinksql.annotation.TableIndex;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * An index of a {@link Row} class, declared by {@link Index} or {@link TableIndex}
+ */
+public final class IndexMetadata {
+
+    private final String name;
+    private final List<String> columns;
+    private final List<Integer> lengths;
+
+    IndexMetadata(@Nullable String name, List<String> columns, List<Integer> lengths) {
+        this.name = name;
+        this.columns = Collections.unmodifiableList(columns);
+        this.lengths = Collections.unmodifiableList(lengths);
+    }
+
+    /**
+     * @param tableName the name of the table
+     * @return the name of the index on the given table
+     */
+    public String getName(String tableName) {
+        if (name == null) {
+            return columns.get(0) + "_I_" + tableName.toLowerCase();
+        }
+        return name.replace("{TABLE}", tableName);
+    }
+
+    /**
+     * @return the indexed columns in index order
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param position the position of the column
+     * @return the prefix length of the column or -1 if the whole value is indexed
+     */
+    public int getLength(int position) {
+        return lengths.get(position);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+/**
+ * See <a href="http://dev.mysql.com/doc/refman/5.6/en/partitioning-types.html">MySQL documentation</a> for more information
+ */
+public enum PartitionType {
+    /**
+     * Rows are assigned to partitions by ranges of the column value, e.g. one partition per month. Partitions can be
+     * added and dropped with the {@link de.static_interface.sinksql.maintenance.PartitionManager}
+     */
+    RANGE,
+    /**
+     * Rows are distributed by the modulus of an integer column value
+     */
+    HASH,
+    /**
+     * Like {@link #HASH}, but the hash is computed by the database, so any column type can be used
+     */
+    KEY;
+
+    public String toSql() {
+        return name();
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.util.ReflectionUtil;
+import de.static_interface.sinksql.util.StringUtil;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Maps {@link ResultSet}s (or values which have already been read) to lightweight projection classes which only contain some columns of a table<br/>
+ * A projection class either has a public no-args constructor and fields named like the columns (or annotated with {@link Column}),
+ * or a single public constructor whose parameters are the selected columns in the same order.<br/>
+ * The mapping is resolved once per projection class and once per {@link ResultSet}, not per row.
+ * @param <P> the projection type
+ */
+public final class ProjectionMapper<P> {
+
+    private static final ClassValue<ProjectionMapper<?>> MAPPERS = new ClassValue<ProjectionMapper<?>>() {
+        @Override
+        protected ProjectionMapper<?> computeValue(Class<?> type) {
+            return new ProjectionMapper<>(type);
+        }
+    };
+
+    private final Class<P> type;
+    private final Constructor<P> constructor;
+    private final boolean positional;
+    private final Map<String, Field> fields = new HashMap<>();
+
+    private ProjectionMapper(Class<P> type) {
+        this.type = type;
+        Constructor<P> noArgsConstructor = null;
+        try {
+            noArgsConstructor = type.getConstructor();
+        } catch (NoSuchMethodException ignored) {
+
+        }
+
+        if (noArgsConstructor != null) {
+            constructor = noArgsConstructor;
+            positional = false;
+            for (Field f : ReflectionUtil.getAllFields(type)) {
+                if (Modifier.isStatic(f.getModifiers()) || Modifier.isFinal(f.getModifiers()) || f.isSynthetic()) {
+                    continue;
+                }
+                Column column = FieldCache.getAnnotation(f, Column.class);
+                String name = column == null || StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
+                if (fields.containsKey(name)) {
+                    continue; // shadowed by a subclass field
+                }
+                f.setAccessible(true);
+                fields.put(name, f);
+            }
+        } else {
+            Constructor<?>[] constructors = type.getConstructors();
+            if (constructors.length != 1) {
+                throw new IllegalArgumentException(
+                        "Invalid projection class: " + type.getName() + ": needs a no-args constructor or exactly one public constructor!");
+            }
+            constructor = (Constructor<P>) constructors[0];
+            positional = true;
+        }
+    }
+
+    /**
+     * @param type the projection class
+     * @return the cached mapper for the given projection class
+     */
+    public static <P> ProjectionMapper<P> of(Class<P> type) {
+        return (ProjectionMapper<P>) MAPPERS.get(type);
+    }
+
+    /**
+     * Read all rows of the {@link ResultSet}
+     * @param db the database, used to find {@link SqlTypeConverter}s for custom types
+     * @param rs the {@link ResultSet} to read
+     * @return the projections
+     * @throws SQLException if reading the {@link ResultSet} fails
+     */
+    public List<P> readAll(Database db, ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<P> result = new ArrayList<>();
+
+        if (positional) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != columnCount) {
+                throw new IllegalStateException(
+                        "Constructor of " + type.getName() + " takes " + parameterTypes.length + " arguments, but " + columnCount + " columns were selected");
+            }
+            Object[] args = new Object[parameterTypes.length];
+            while (rs.next()) {
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = readValue(db, rs, i + 1, metaData.getColumnLabel(i + 1), parameterTypes[i]);
+                }
+                result.add(newInstance(args));
+            }
+            return result;
+        }
+
+        // resolve the field for each selected column only once
+        List<Field> targetFields = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (int i = 1; i <= columnCount; i++) {
+            String label = metaData.getColumnLabel(i);
+            Field f = fields.get(label);
+            if (f != null) {
+                targetFields.add(f);
+                indexes.add(i);
+                labels.add(label);
+            }
+        }
+
+        while (rs.next()) {
+            P instance = newInstance();
+            for (int i = 0; i < targetFields.size(); i++) {
+                Field f = targetFields.get(i);
+                try {
+                    f.set(instance, readValue(db, rs, indexes.get(i), labels.get(i), f.getType()));
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            result.add(instance);
+        }
+        return result;
+    }
+
+    /**
+     * Map rows which have already been read, e.g. by databases which don't use JDBC
+     * @param columns the names of the selected columns
+     * @param rows the values of each row, in the same order as the columns
+     * @param converter converts a value to the type of the constructor parameter or field
+     * @return the projections
+     */
+    public List<P> mapAll(List<String> columns, List<Object[]> rows, BiFunction<Class<?>, Object, Object> converter) {
+        List<P> result = new ArrayList<>(rows.size());
+
+        if (positional) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != columns.size()) {
+                throw new IllegalStateException(
+                        "Constructor of " + type.getName() + " takes " + parameterTypes.length + " arguments, but " + columns.size() + " columns were selected");
+            }
+            for (Object[] values : rows) {
+                Object[] args = new Object[parameterTypes.length];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = convertValue(converter, parameterTypes[i], values[i]);
+                }
+                result.add(newInstance(args));
+            }
+            return result;
+        }
+
+        // resolve the field for each selected column only once
+        List<Field> targetFields = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Field f = fields.get(columns.get(i));
+            if (f != null) {
+                targetFields.add(f);
+                indexes.add(i);
+            }
+        }
+
+        for (Object[] values : rows) {
+            P instance = newInstance();
+            for (int i = 0; i < targetFields.size(); i++) {
+                Field f = targetFields.get(i);
+                try {
+                    f.set(instance, convertValue(converter, f.getType(), values[indexes.get(i)]));
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            result.add(instance);
+        }
+        return result;
+    }
+
+    /**
+     * @return the projection class
+     */
+    public Class<P> getType() {
+        return type;
+    }
+
+    private P newInstance(Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't create projection " + type.getName() + ": ", e);
+        }
+    }
+
+    private static Object convertValue(BiFunction<Class<?>, Object, Object> converter, Class<?> type, Object value) {
+        Object converted = value == null ? null : converter.apply(type, value);
+        if (converted == null && type.isPrimitive()) {
+            return Array.get(Array.newInstance(type, 1), 0); // 0 or false, like the typed ResultSet getters
+        }
+        return converted;
+    }
+
+    private static Object readValue(Database db, ResultSet rs, int index, String label, Class<?> type) throws SQLException {
+        Object value;
+        if (type == int.class || type == Integer.class) {
+            value = rs.getInt(index);
+        } else if (type == long.class || type == Long.class) {
+            value = rs.getLong(index);
+        } else if (type == double.class || type == Double.class) {
+            value = rs.getDouble(index);
+        } else if (type == float.class || type == Float.class) {
+            value = rs.getFloat(index);
+        } else if (type == short.class || type == Short.class) {
+            value = rs.getShort(index);
+        } else if (type == byte.class || type == Byte.class) {
+            value = rs.getByte(index);
+        } else if (type == boolean.class || type == Boolean.class) {
+            value = rs.getBoolean(index);
+        } else if (type == String.class) {
+            return rs.getString(index);
+        } else {
+            SqlTypeConverter converter = AbstractTable.getTypeConverter(db.getClass(), type);
+            if (converter != null) {
+                return converter.read(db, rs, label, type);
+            }
+            return rs.getObject(index, type);
+        }
+
+        // the typed getters already return 0 or false for primitives
+        if (!type.isPrimitive() && rs.wasNull()) {
+            return null;
+        }
+        return value;
+    }
+}
@@ -18,17 +18,22 @@
 package de.static_interface.sinksql;
 
 import de.static_interface.sinksql.annotation.ForeignKey;
+import de.static_interface.sinksql.annotation.Partitioned;
 import de.static_interface.sinksql.annotation.UniqueKey;
 import de.static_interface.sinksql.annotation.Column;
-import de.static_interface.sinksql.annotation.Index;
 import de.static_interface.sinksql.exception.InvalidSqlColumnException;
 import de.static_interface.sinksql.impl.table.OptionsTable;
+import de.static_interface.sinksql.impl.table.SchemaTable;
+import de.static_interface.sinksql.key.KeyGenerator;
 import de.static_interface.sinksql.query.Query;
 import de.static_interface.sinksql.query.condition.EqualsCondition;
 import de.static_interface.sinksql.query.condition.GreaterThanCondition;
 import de.static_interface.sinksql.query.condition.GreaterThanEqualsCondition;
 import de.static_interface.sinksql.query.condition.LikeCondition;
+import de.static_interface.sinksql.query.condition.MatchCondition;
 import de.static_interface.sinksql.query.condition.WhereCondition;
+import de.static_interface.sinksql.query.expression.ArithmeticExpression;
+import de.static_interface.sinksql.query.expression.SetExpression;
 import de.static_interface.sinksql.query.impl.AndQuery;
 import de.static_interface.sinksql.query.impl.DeleteQuery;
 import de.static_interface.sinksql.query.impl.FromQuery;
@@ -39,31 +44,49 @@ import de.static_interface.sinksql.query.impl.SelectQuery;
 import de.static_interface.sinksql.query.impl.SetQuery;
 import de.static_interface.sinksql.query.impl.UpdateQuery;
 import de.static_interface.sinksql.query.impl.WhereQuery;
+import de.static_interface.sinksql.schema.SchemaMigrator;
+import de.static_interface.sinksql.schema.TableDependencies;
 import de.static_interface.sinksql.util.ReflectionUtil;
 import de.static_interface.sinksql.util.StringUtil;
 import org.apache.commons.lang3.Validate;
 
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
 public abstract class SqlDatabase extends Database {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_BOOTSTRAP_THREADS = 4;
     private final char backtick;
     int queryType = 0;
     int selectQuery = 1;
     int updateQuery = 2;
     int deleteQuery = 3;
     private boolean firstSetCall = true;
+    private final SchemaMigrator schemaMigrator = new SchemaMigrator(this);
 
     /**
      *  @param info the connection info
@@ -77,6 +100,11 @@ public abstract class SqlDatabase extends Database {
     @Override
     public String toDatabaseType(Field f) {
         Class clazz = f.getType();
+        SqlTypeConverter converter = AbstractTable.getTypeConverter(getClass(), clazz);
+        if (converter != null) {
+            return converter.getDatabaseType(this, f);
+        }
+
         Column column = FieldCache.getAnnotation(f, Column.class);
         String keyLength = "";
         if (column.keyLength() >= 0) {
@@ -88,12 +116,6 @@ public abstract class SqlDatabase extends Database {
                         || FieldCache.getAnnotation(f, ForeignKey.class) != null
                         || FieldCache.getAnnotation(f, UniqueKey.class) != null;
 
-        if (clazz == Date.class) {
-            throw new RuntimeException("Date is not supported for now !");
-        }
-        if (clazz == java.sql.Date.class) {
-            throw new RuntimeException("Date is not supported for now!");
-        }
         if (clazz == Integer.class || clazz == int.class) {
             return "INT" + keyLength;
         }
@@ -158,7 +180,7 @@ public abstract class SqlDatabase extends Database {
         if (tQuery instanceof SelectQuery) {
             queryType = selectQuery;
             validateColumnNames(tQuery, ((SelectQuery) tQuery).getColumns());
-            return "SELECT " + StringUtil.formatArrayToString(((SelectQuery) tQuery).getColumns(), ",") + " FROM " + bt + "{TABLE}" + bt + " ";
+            return "SELECT " + selectColumnsToSql(((SelectQuery) tQuery).getColumns()) + " FROM " + bt + "{TABLE}" + bt + " ";
         }
 
         if (tQuery instanceof UpdateQuery) {
@@ -177,7 +199,13 @@ public abstract class SqlDatabase extends Database {
             }
             String columnName = ((SetQuery) tQuery).getColumn();
             validateColumnNames(tQuery, columnName);
-            String value = tQuery.getTable().toSqlValue(((SetQuery) tQuery).getValue());
+            Object rawValue = ((SetQuery) tQuery).getValue();
+            String value;
+            if (rawValue instanceof SetExpression) {
+                value = setExpressionToSql(tQuery, columnName, (SetExpression) rawValue);
+            } else {
+                value = tQuery.getTable().toSqlValue(rawValue);
+            }
 
             String setStatement = bt + columnName + bt + "=" + value + " ";
             if (!firstSetCall) {
@@ -209,12 +237,40 @@ public abstract class SqlDatabase extends Database {
         }
 
         if (tQuery instanceof LimitQuery) {
-            return "LIMIT " + ((LimitQuery) tQuery).getOffset() + "," + ((LimitQuery) tQuery).getRowCount() + " ";
+            return limitToSql(((LimitQuery) tQuery).getOffset(), ((LimitQuery) tQuery).getRowCount()) + " ";
         }
 
         throw new IllegalStateException("Query not supported: " + tQuery.getClass().getName());
     }
 
+    /**
+     * Quotes plain column names, so they keep their case on databases which fold unquoted identifiers. <code>*</code>
+     * and expressions are kept as they are
+     * @param columns the selected columns
+     * @return the column list of the <code>SELECT</code> statement
+     */
+    protected String selectColumnsToSql(String[] columns) {
+        char bt = getBacktick();
+        String sql = "";
+        for (String column : columns) {
+            if (!sql.equals("")) {
+                sql += ",";
+            }
+            String name = column.trim();
+            sql += name.matches("[A-Za-z_][A-Za-z0-9_]*") ? bt + name + bt : column;
+        }
+        return sql;
+    }
+
+    /**
+     * @param offset the offset of the first row
+     * @param rowCount the maximal row count
+     * @return the <code>LIMIT</code> clause
+     */
+    protected String limitToSql(int offset, int rowCount) {
+        return "LIMIT " + offset + "," + rowCount;
+    }
+
     protected String handleQuery(Query query) {
         //easier integration for 3rd party extensions
         return null;
@@ -232,21 +288,8 @@ public abstract class SqlDatabase extends Database {
             return;
         }
 
-        AbstractTable table = query.getTable();
-        Class<Row> rowClass = table.getRowClass();
-
-        List<String> rowColumns = new ArrayList<>();
-        for (Field f : ReflectionUtil.getAllFields(rowClass)) {
-            if (f == null) {
-                continue;
-            }
-            String name = f.getName();
-            Column c = FieldCache.getAnnotation(f, Column.class);
-            if (!StringUtil.isEmptyOrNull(c.name())) {
-                name = c.name();
-            }
-            rowColumns.add(name.trim());
-        }
+        AbstractTable<?> table = query.getTable();
+        TableMetadata<?> metadata = table.getMetadata();
 
         boolean isInvalid = false;
         for (String s : columns) {
@@ -269,7 +312,7 @@ public abstract class SqlDatabase extends Database {
                 throw new IllegalArgumentException("Column \"" + s + "\" has an illegal name in query \"" + query.getClass().getSimpleName() + "\"");
             }
 
-            if (!rowColumns.contains(s.trim())) {
+            if (metadata.getColumn(s.trim()) == null) {
                 throw new IllegalStateException(
                         "Column \"" + s + "\"" + " not found in table \"" + table.getName() + "\"" + " in query " + query.getClass().getSimpleName()
                         + "\"");
@@ -277,6 +320,17 @@ public abstract class SqlDatabase extends Database {
         }
     }
 
+    protected String setExpressionToSql(Query tQuery, String columnName, SetExpression expression) {
+        char bt = getBacktick();
+        String value = tQuery.getTable().toSqlValue(expression.getValue());
+        if (expression instanceof ArithmeticExpression) {
+            String operator = ((ArithmeticExpression) expression).getOperator().toSql();
+            return bt + columnName + bt + " " + operator + " " + value;
+        }
+
+        throw new IllegalStateException("Expression not supported: " + expression.getClass().getName());
+    }
+
     protected String whereStatementToSql(WhereQuery tQuery) {
         WhereCondition condition = tQuery.getCondition();
         String prefix = "";
@@ -329,7 +383,15 @@ public abstract class SqlDatabase extends Database {
                 }
             }
 
-            return prefix + columName + " " + equalsOperator + " " + (o == null ? "NULL" : o.toString()) + suffix;
+            String value;
+            if (o == null) {
+                value = "NULL";
+            } else if (o instanceof String) {
+                value = (String) o; // placeholders and plain SQL
+            } else {
+                value = tQuery.getTable().toSqlValue(o, false);
+            }
+            return prefix + columName + " " + equalsOperator + " " + value + suffix;
         }
 
         if (condition instanceof LikeCondition) {
@@ -341,9 +403,36 @@ public abstract class SqlDatabase extends Database {
             return prefix + columName + " " + likeOperator + ((LikeCondition) condition).getPattern() + suffix;
         }
 
+        if (condition instanceof MatchCondition) {
+            String value = tQuery.getTable().toSqlValue(condition.getValue(), false);
+            return prefix + matchToSql(tQuery, (MatchCondition) condition, value) + suffix;
+        }
+
         throw new IllegalStateException("Condition not supported: " + condition.getClass().getName());
     }
 
+    /**
+     * Replaces the backticks of hand-written MySQL style statements with the quote of this database, string literals
+     * are kept as they are
+     */
+    @Override
+    public String toNativeSql(String sql) {
+        char bt = getBacktick();
+        if (bt == '`' || bt == '\0' || sql.indexOf('`') < 0) {
+            return sql; // H2 understands backticks in MySQL mode
+        }
+
+        StringBuilder nativeSql = new StringBuilder(sql.length());
+        boolean isLiteral = false;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                isLiteral = !isLiteral;
+            }
+            nativeSql.append(c == '`' && !isLiteral ? bt : c);
+        }
+        return nativeSql.toString();
+    }
+
     @Override
     public String stringify(String s) {
         if (s == null) {
@@ -356,72 +445,53 @@ public abstract class SqlDatabase extends Database {
     @SuppressWarnings("deprecation")
     @Override
     public <T extends Row> void createTable(AbstractTable<T> abstractTable) {
+        abstractTable.executeUpdate(getCreateTableSql(abstractTable));
+        if (!supportsInlineIndexes()) {
+            for (IndexMetadata index : getIndexes(abstractTable)) {
+                abstractTable.executeUpdate(getCreateIndexSql(abstractTable, index));
+            }
+        }
+    }
+
+    /**
+     * @param abstractTable the table
+     * @return the <code>CREATE TABLE</code> statement of the table
+     */
+    public <T extends Row> String getCreateTableSql(AbstractTable<T> abstractTable) {
+        return getCreateTableSql(abstractTable, abstractTable.getName());
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param tableName the name of the created table, e.g. for shadow copies
+     * @return the <code>CREATE TABLE</code> statement of the table
+     */
+    public <T extends Row> String getCreateTableSql(AbstractTable<T> abstractTable, String tableName) {
         char bt = getBacktick();
-        String sql = "CREATE TABLE IF NOT EXISTS " + bt + abstractTable.getName() + bt + " (";
+        String sql = "CREATE TABLE IF NOT EXISTS " + bt + tableName + bt + " (";
 
         List<String> primaryKeys = new ArrayList<>();
         List<String> uniqueKeys = new ArrayList<>();
-        List<Field> foreignKeys = new ArrayList<>();
-        List<Field> indexes = new ArrayList<>();
+        List<ColumnMetadata> foreignKeys = new ArrayList<>();
         HashMap<Integer, List<String>> combinedUniqueKeys = new HashMap<>();
 
         Class foreignOptionsTable = null;
 
-        if (abstractTable instanceof OptionsTable)
-
-        {
+        if (abstractTable instanceof OptionsTable) {
             foreignOptionsTable = ((OptionsTable) abstractTable).getForeignTable();
         }
 
-        for (
-                Field f
-                :
-
-                abstractTable.getRowClass()
-
-                        .
-
-                                getFields()
-
-                )
-
-        {
-            Column column = FieldCache.getAnnotation(f, Column.class);
-            if (column == null) {
-                continue;
-            }
-            String name = StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
-
-            sql += bt + name + bt + " " + toDatabaseType(f);
-
-            if (column.zerofill()) {
-                if (!ReflectionUtil.isNumber(f.getType())) {
-                    throw new InvalidSqlColumnException(abstractTable, f, name, "column was annotated as ZEROFILL but wrapper type is not a number");
-                }
-                sql += " ZEROFILL";
-            }
-
-            if (column.unsigned()) {
-                if (!ReflectionUtil.isNumber(f.getType())) {
-                    throw new InvalidSqlColumnException(abstractTable, f, name,
-                                                        "column was annotated as UNSIGNED but wrapper type is not a number");
-                }
-                sql += " UNSIGNED";
-            }
+        for (ColumnMetadata columnMetadata : abstractTable.getMetadata().getColumns()) {
+            Column column = columnMetadata.getColumn();
+            String name = columnMetadata.getName();
 
-            if (column.autoIncrement()) {
-                if (!ReflectionUtil.isNumber(f.getType())) {
-                    throw new InvalidSqlColumnException(abstractTable, f, name,
-                                                        "column was annotated as AUTO_INCREMENT but wrapper type is not a number");
-                }
-                sql += " AUTO_INCREMENT";
-            }
+            sql += bt + name + bt + " " + getColumnDefinitionSql(abstractTable, columnMetadata);
 
             if (column.uniqueKey()) {
                 uniqueKeys.add(name);
             }
 
-            UniqueKey uniqueKey = FieldCache.getAnnotation(f, UniqueKey.class);
+            UniqueKey uniqueKey = columnMetadata.getUniqueKey();
             if (uniqueKey != null) {
                 if (uniqueKey.combinationId() == Integer.MAX_VALUE) {
                     uniqueKeys.add(name);
@@ -439,36 +509,14 @@ public abstract class SqlDatabase extends Database {
                 primaryKeys.add(name);
             }
 
-            if (FieldCache.getAnnotation(f, Nullable.class) == null) {
-                sql += " NOT NULL";
-            } else if (ReflectionUtil.isPrimitiveClass(f.getType())) {
-                // The column is nullable but the wrapper type is a primitive value, which can't be null
-                throw new InvalidSqlColumnException(abstractTable, f, name,
-                                                    "column was annotated as NULLABLE but wrapper type is a primitive type");
-            }
-
-            if (!StringUtil.isEmptyOrNull(column.defaultValue())) {
-                sql += " DEFAULT " + column.defaultValue();
-            }
-
-            if (!StringUtil.isEmptyOrNull(column.comment())) {
-                sql += " COMMENT '" + column.comment() + "'";
-            }
-
-            if (FieldCache.getAnnotation(f, ForeignKey.class) != null) {
-                foreignKeys.add(f);
-            }
-
-            if (FieldCache.getAnnotation(f, Index.class) != null) {
-                indexes.add(f);
+            if (columnMetadata.getForeignKey() != null) {
+                foreignKeys.add(columnMetadata);
             }
 
             sql += ",";
         }
 
-        if (primaryKeys.size() > 0)
-
-        {
+        if (primaryKeys.size() > 0 && !hasInlinePrimaryKey(abstractTable)) {
             String columns = "";
             for (String f : primaryKeys) {
                 if (!columns.equals("")) {
@@ -479,17 +527,13 @@ public abstract class SqlDatabase extends Database {
             sql += "PRIMARY KEY (" + columns + "),";
         }
 
-        if (uniqueKeys.size() > 0)
-
-        {
+        if (uniqueKeys.size() > 0) {
             for (String s : uniqueKeys) {
                 sql += "UNIQUE (" + bt + s + bt + "),";
             }
         }
 
-        if (combinedUniqueKeys.size() > 0)
-
-        {
+        if (combinedUniqueKeys.size() > 0) {
             for (List<String> columnsList : combinedUniqueKeys.values()) {
                 String columns = "";
                 String first = null;
@@ -502,72 +546,406 @@ public abstract class SqlDatabase extends Database {
                     }
                     columns += bt + f + bt;
                 }
-                sql += "UNIQUE KEY " + bt + first + "_uk" + bt + " (" + columns + "),";
+                sql += uniqueKeyToSql(abstractTable, first + "_uk", columns) + ",";
             }
         }
 
-        for (
-                Field f
-                : foreignKeys)
-
-        {
-            Column column = FieldCache.getAnnotation(f, Column.class);
-            String name = StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
-            ForeignKey foreignKey = FieldCache.getAnnotation(f, ForeignKey.class);
-
-            sql = addForeignKey(sql, name, foreignKey.table(), foreignKey.column(), foreignKey.onUpdate(), foreignKey.onDelete());
+        for (ColumnMetadata columnMetadata : foreignKeys) {
+            ForeignKey foreignKey = columnMetadata.getForeignKey();
+            sql = addForeignKey(sql, columnMetadata.getName(), foreignKey.table(), foreignKey.column(), foreignKey.onUpdate(), foreignKey.onDelete());
         }
 
-        if (foreignOptionsTable != null)
-
-        {
+        if (foreignOptionsTable != null) {
             String column = ((OptionsTable) abstractTable).getForeignColumn();
             CascadeAction onUpdate = ((OptionsTable) abstractTable).getForeignOnUpdateAction();
             CascadeAction onDelete = ((OptionsTable) abstractTable).getForeignOnDeleteAction();
             sql = addForeignKey(sql, "foreignTarget", foreignOptionsTable, column, onUpdate, onDelete);
         }
 
-        for (
-                Field f
-                : indexes)
+        if (supportsInlineIndexes()) {
+            for (IndexMetadata index : getIndexes(abstractTable)) {
+                sql += "INDEX " + bt + index.getName(abstractTable.getName()) + bt + " (" + indexColumnsToSql(index) + "),";
+            }
+        }
 
-        {
-            if (abstractTable.getEngine().equalsIgnoreCase("InnoDB") && foreignKeys.contains(f)) {
-                continue; //InnoDB already creates indexes for foreign keys, so skip these...
+        for (IndexMetadata index : abstractTable.getMetadata().getFullTextIndexes()) {
+            String fullTextIndex = fullTextIndexToSql(abstractTable, index);
+            if (fullTextIndex != null) {
+                sql += fullTextIndex + ",";
             }
+        }
 
-            Column column = FieldCache.getAnnotation(f, Column.class);
-            String name = StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
+        if (sql.endsWith(",")) {
+            sql = sql.substring(0, sql.length() - 1);
+        }
 
-            Index index = FieldCache.getAnnotation(f, Index.class);
-            String indexName = StringUtil.isEmptyOrNull(index.name()) ? name + "_I_" + abstractTable.getName().toLowerCase() : index.name();
+        sql += ")";
+        if (supportsEngines()) {
+            //Todo: do other SQL databases support engines?
+            sql += " ENGINE=" + abstractTable.getEngine();
 
-            sql += "INDEX " + bt + indexName + bt + " (" + bt + name + bt + ")";
+            Partitioned partitioned = abstractTable.getRowClass().getAnnotation(Partitioned.class);
+            if (partitioned != null) {
+                sql += " " + partitionToSql(abstractTable, partitioned);
+            }
+        }
 
-            sql += ",";
+        sql += ";";
+
+        return sql;
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param columnMetadata the column
+     * @return the definition of the column without its name, e.g. <code>INT UNSIGNED NOT NULL</code>
+     */
+    protected String getColumnDefinitionSql(AbstractTable<?> abstractTable, ColumnMetadata columnMetadata) {
+        Field f = columnMetadata.getField();
+        Column column = columnMetadata.getColumn();
+        String name = columnMetadata.getName();
+        String sql = toDatabaseType(f);
+
+        if (column.zerofill()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name, "column was annotated as ZEROFILL but wrapper type is not a number");
+            }
+            sql += " ZEROFILL";
         }
 
-        if (sql.endsWith(","))
+        if (column.unsigned()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "column was annotated as UNSIGNED but wrapper type is not a number");
+            }
+            sql += " UNSIGNED";
+        }
 
-        {
-            sql = sql.substring(0, sql.length() - 1);
+        if (column.autoIncrement()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "column was annotated as AUTO_INCREMENT but wrapper type is not a number");
+            }
+            sql += " AUTO_INCREMENT";
         }
 
-        sql += ")";
-        if (supportsEngines())
+        if (!columnMetadata.isNullable()) {
+            sql += " NOT NULL";
+        } else if (ReflectionUtil.isPrimitiveClass(f.getType())) {
+            // The column is nullable but the wrapper type is a primitive value, which can't be null
+            throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                "column was annotated as NULLABLE but wrapper type is a primitive type");
+        }
 
-        {
-            //Todo: do other SQL databases support engines?
-            sql += " ENGINE=" + abstractTable.getEngine();
+        if (!StringUtil.isEmptyOrNull(column.defaultValue())) {
+            sql += " DEFAULT " + column.defaultValue();
         }
 
-        sql += ";";
+        if (!StringUtil.isEmptyOrNull(column.comment())) {
+            sql += " COMMENT '" + column.comment() + "'";
+        }
+
+        return sql;
+    }
+
+    /**
+     * Creates the tables with {@link AbstractTable#create()}, independent tables are created in parallel on
+     * separate pool connections<br/>
+     * The fingerprint of each created table is stored in the {@link SchemaTable}. Tables which still exist and
+     * whose fingerprint has not changed are skipped without sending any DDL, other existing tables are updated by the
+     * {@link #getSchemaMigrator()}.
+     * @param tables the tables to create
+     * @throws SQLException if a table couldn't be created
+     */
+    @Override
+    public void createTables(Collection<? extends AbstractTable<?>> tables) throws SQLException {
+        SchemaTable schemaTable = new SchemaTable(SchemaTable.TABLE_NAME, this);
+        schemaTable.create();
+        Map<String, String> storedFingerprints = schemaTable.getFingerprints();
+
+        // only look at the current database, same-named tables of other databases don't count
+        Connection current = getConnection();
+        Set<String> existingTables = new HashSet<>();
+        ResultSet rs = current.getMetaData().getTables(current.getCatalog(), current.getSchema(), "%", new String[]{"TABLE"});
+        while (rs.next()) {
+            existingTables.add(rs.getString("TABLE_NAME").toLowerCase());
+        }
+        rs.close();
+
+        for (List<AbstractTable<?>> level : TableDependencies.getCreationLevels(tables)) {
+            Map<AbstractTable<?>, String> pending = new LinkedHashMap<>();
+            for (AbstractTable<?> table : level) {
+                String fingerprint = getSchemaFingerprint(table);
+                boolean exists = existingTables.contains(table.getName().toLowerCase());
+                if (exists && fingerprint.equals(storedFingerprints.get(table.getName()))) {
+                    continue;
+                }
+                pending.put(table, fingerprint);
+            }
+            createTables(pending, schemaTable, existingTables);
+        }
+    }
+
+    /**
+     * @return the migrator which adds new columns and indexes to existing tables in {@link #createTables(Collection)}
+     */
+    public SchemaMigrator getSchemaMigrator() {
+        return schemaMigrator;
+    }
+
+    private void createOrMigrate(AbstractTable<?> table, String fingerprint, SchemaTable schemaTable, Set<String> existingTables) throws SQLException {
+        table.create();
+        if (existingTables.contains(table.getName().toLowerCase())) {
+            schemaMigrator.migrate(table);
+        }
+        schemaTable.setFingerprint(table.getName(), fingerprint);
+    }
+
+    private void createTables(Map<AbstractTable<?>, String> tables, SchemaTable schemaTable, Set<String> existingTables) throws SQLException {
+        if (tables.size() < 2 || dataSource == null) {
+            for (Map.Entry<AbstractTable<?>, String> entry : tables.entrySet()) {
+                createOrMigrate(entry.getKey(), entry.getValue(), schemaTable, existingTables);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tables.size(), MAX_BOOTSTRAP_THREADS));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<AbstractTable<?>, String> entry : tables.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    Connection connection = dataSource.getConnection();
+                    bindConnection(connection);
+                    try {
+                        createOrMigrate(entry.getKey(), entry.getValue(), schemaTable, existingTables);
+                    } finally {
+                        bindConnection(null);
+                        connection.close();
+                    }
+                    return null;
+                }));
+            }
 
-        abstractTable.executeUpdate(sql);
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException) e.getCause();
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @param abstractTable the table
+     * @return a hash of everything which is used to create the table
+     */
+    protected String getSchemaFingerprint(AbstractTable<?> abstractTable) {
+        String schema = abstractTable.getClass().getName() + "\n" + getCreateTableSql(abstractTable);
+        for (IndexMetadata index : abstractTable.getMetadata().getFullTextIndexes()) {
+            schema += "\n" + index.getName(abstractTable.getName()) + index.getColumns();
+        }
+
+        try {
+            return StringUtil.toHex(MessageDigest.getInstance("SHA-256").digest(schema.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     protected abstract boolean supportsEngines();
 
+    /**
+     * @return true if indexes can be declared inside of <code>CREATE TABLE</code>, otherwise they will be created with
+     * {@link #getCreateIndexSql(AbstractTable, IndexMetadata)} after the table
+     */
+    protected boolean supportsInlineIndexes() {
+        return true;
+    }
+
+    /**
+     * @param abstractTable the table
+     * @return true if the primary key is declared by the column definition instead of a <code>PRIMARY KEY</code> clause
+     */
+    protected boolean hasInlinePrimaryKey(AbstractTable<?> abstractTable) {
+        return false;
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param name the name of the key
+     * @param columns the quoted column list
+     * @return the definition of a combined unique key inside of <code>CREATE TABLE</code>
+     */
+    protected String uniqueKeyToSql(AbstractTable<?> abstractTable, String name, String columns) {
+        char bt = getBacktick();
+        return "UNIQUE KEY " + bt + name + bt + " (" + columns + ")";
+    }
+
+    /**
+     * @param abstractTable the table
+     * @return the indexes which are created with the table
+     */
+    public List<IndexMetadata> getIndexes(AbstractTable<?> abstractTable) {
+        List<IndexMetadata> indexes = new ArrayList<>();
+        for (IndexMetadata index : abstractTable.getMetadata().getIndexes()) {
+            if (abstractTable.getEngine().equalsIgnoreCase("InnoDB") && index.getColumns().size() == 1
+                && abstractTable.getMetadata().getColumn(index.getColumns().get(0)).getForeignKey() != null) {
+                continue; //InnoDB already creates indexes for foreign keys, so skip these...
+            }
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    /**
+     * @return true if columns and indexes can be added without locking the table
+     */
+    protected boolean supportsOnlineDdl() {
+        return supportsEngines();
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param columnMetadata the new column
+     * @return the statement which adds the column to an existing table
+     */
+    public String getAddColumnSql(AbstractTable<?> abstractTable, ColumnMetadata columnMetadata) {
+        char bt = getBacktick();
+        return "ALTER TABLE " + bt + abstractTable.getName() + bt + " ADD COLUMN " + bt + columnMetadata.getName() + bt + " "
+               + getColumnDefinitionSql(abstractTable, columnMetadata) + (supportsOnlineDdl() ? ", ALGORITHM=INPLACE, LOCK=NONE" : "");
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param index the new index
+     * @return the statement which adds the index to an existing table
+     */
+    public String getCreateIndexSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        char bt = getBacktick();
+        return "CREATE INDEX " + bt + index.getName(abstractTable.getName()) + bt + " ON " + bt + abstractTable.getName() + bt
+               + " (" + indexColumnsToSql(index) + ")" + (supportsOnlineDdl() ? " ALGORITHM=INPLACE LOCK=NONE" : "");
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param uniqueKey the new unique key, see {@link TableMetadata#getUniqueKeys()}
+     * @return the statement which adds the unique key to an existing table
+     */
+    public String getCreateUniqueIndexSql(AbstractTable<?> abstractTable, IndexMetadata uniqueKey) {
+        char bt = getBacktick();
+        return "CREATE UNIQUE INDEX " + bt + uniqueKey.getName(abstractTable.getName()) + bt + " ON " + bt + abstractTable.getName() + bt
+               + " (" + indexColumnsToSql(uniqueKey) + ")" + (supportsOnlineDdl() ? " ALGORITHM=INPLACE LOCK=NONE" : "");
+    }
+
+    /**
+     * @return true if the database supports <code>DELETE ... LIMIT</code>
+     */
+    public boolean supportsDeleteLimit() {
+        return true;
+    }
+
+    /**
+     * @return true if {@link Partitioned} tables will be partitioned
+     */
+    public boolean supportsPartitioning() {
+        return supportsEngines();
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param partitioned the partitioning of the table
+     * @return the <code>PARTITION BY</code> clause
+     */
+    protected String partitionToSql(AbstractTable<?> abstractTable, Partitioned partitioned) {
+        char bt = getBacktick();
+        String column = bt + partitioned.column() + bt;
+        if (abstractTable.getMetadata().getColumn(partitioned.column()) == null) {
+            throw new IllegalStateException("Unknown partition column " + partitioned.column() + " on " + abstractTable.getName());
+        }
+
+        switch (partitioned.type()) {
+            case RANGE:
+                if (partitioned.rangeSize() <= 0) {
+                    throw new IllegalStateException("RANGE partitioning requires a rangeSize on " + abstractTable.getName());
+                }
+                if (!StringUtil.isEmptyOrNull(partitioned.function())) {
+                    column = partitioned.function() + "(" + column + ")";
+                }
+                return "PARTITION BY RANGE (" + column + ") (PARTITION " + bt + "pmax" + bt + " VALUES LESS THAN MAXVALUE)";
+            case HASH:
+            case KEY:
+                return "PARTITION BY " + partitioned.type().toSql() + " (" + column + ") PARTITIONS " + partitioned.partitions();
+            default:
+                throw new IllegalStateException("Partition type not supported: " + partitioned.type());
+        }
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param index the full-text index
+     * @return the definition of the index inside of <code>CREATE TABLE</code> or null if the database creates them otherwise
+     */
+    @Nullable
+    protected String fullTextIndexToSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        char bt = getBacktick();
+        return "FULLTEXT INDEX " + bt + index.getName(abstractTable.getName()) + bt + " (" + indexColumnsToSql(index) + ")";
+    }
+
+    /**
+     * @param tQuery the where statement
+     * @param condition the match condition
+     * @param value the SQL value to search for
+     * @return the full-text search condition, without parenthesis
+     */
+    protected String matchToSql(WhereQuery tQuery, MatchCondition condition, String value) {
+        char bt = getBacktick();
+        String columns = bt + tQuery.getColumn() + bt;
+        for (String column : condition.getAdditionalColumns()) {
+            validateColumnNames(tQuery, column);
+            columns += ", " + bt + column + bt;
+        }
+        return (condition.isNegated() ? "NOT " : "") + "MATCH(" + columns + ") AGAINST(" + value + " IN BOOLEAN MODE)";
+    }
+
+    /**
+     * @return true if the database supports indexing only a prefix of a column
+     */
+    protected boolean supportsIndexPrefixes() {
+        return true;
+    }
+
+    /**
+     * @param index the index
+     * @return the column list of the index, e.g. <code>`owner`, `name`(64)</code>
+     */
+    protected String indexColumnsToSql(IndexMetadata index) {
+        char bt = getBacktick();
+        String sql = "";
+        for (int i = 0; i < index.getColumns().size(); i++) {
+            if (!sql.equals("")) {
+                sql += ", ";
+            }
+            sql += bt + index.getColumns().get(i) + bt;
+            int length = index.getLength(i);
+            if (length > 0 && supportsIndexPrefixes()) {
+                sql += "(" + length + ")";
+            }
+        }
+        return sql;
+    }
+
     protected String addForeignKey(String sql, String name, Class<? extends AbstractTable> targetClass, String columnName, CascadeAction onUpdate,
                                    CascadeAction onDelete) {
         char bt = getBacktick();
@@ -582,8 +960,8 @@ public abstract class SqlDatabase extends Database {
         }
 
         sql +=
-                "FOREIGN KEY (" + bt + name + bt + ") REFERENCES " + getConnectionInfo().getTablePrefix() + tablename + " (" + bt + columnName
-                + bt + ")";
+                "FOREIGN KEY (" + bt + name + bt + ") REFERENCES " + bt + getConnectionInfo().getTablePrefix() + tablename + bt + " (" + bt
+                + columnName + bt + ")";
         sql += " ON UPDATE " + onUpdate.toSql() + " ON DELETE " + onDelete.toSql();
 
         sql += ",";
@@ -594,60 +972,136 @@ public abstract class SqlDatabase extends Database {
     @Override
     public <T extends Row> T insert(AbstractTable<T> abstractTable, T row) {
         Validate.notNull(row);
-        String columns = "";
+        return executeInsert(abstractTable, row, this::buildInsertSql);
+    }
+
+    /**
+     * Inserts the row with {@link #getUpsertSql(AbstractTable, List)}
+     */
+    @Override
+    public <T extends Row> T upsert(AbstractTable<T> abstractTable, T row) {
+        Validate.notNull(row);
+        return executeInsert(abstractTable, row, columns -> getUpsertSql(abstractTable, columns));
+    }
+
+    /**
+     * @param abstractTable the table
+     * @param columns the inserted columns, in binding order
+     * @return the <code>INSERT</code> statement which updates the existing row on a primary or unique key conflict
+     */
+    protected String getUpsertSql(AbstractTable<?> abstractTable, List<ColumnMetadata> columns) {
         char bt = getBacktick();
-        int i = 0;
-        List<Field> fields = ReflectionUtil.getAllFields(abstractTable.getRowClass());
-        Map<Field, String> autoIncrements = new HashMap<>();
-        for (Field f : fields) {
-            Column column = FieldCache.getAnnotation(f, Column.class);
-            if (column == null) {
+        String updates = "";
+        for (ColumnMetadata column : columns) {
+            if (column.isPrimaryKey()) {
                 continue;
             }
+            if (!updates.equals("")) {
+                updates += ", ";
+            }
+            updates += bt + column.getName() + bt + "=VALUES(" + bt + column.getName() + bt + ")";
+        }
+        if (updates.equals("")) {
+            String key = bt + getConflictColumns(abstractTable).get(0) + bt;
+            updates = key + "=" + key;
+        }
+        return buildInsertSql(columns) + " ON DUPLICATE KEY UPDATE " + updates;
+    }
 
-            String name = StringUtil.isEmptyOrNull(column.name()) ? f.getName() : column.name();
-
-            if (column.autoIncrement()) {
-                autoIncrements.put(f, name);
+    /**
+     * Builds an upsert with the standard <code>ON CONFLICT ... DO UPDATE</code> clause, for databases which don't
+     * support MySQL's <code>ON DUPLICATE KEY UPDATE</code>
+     * @param abstractTable the table
+     * @param columns the inserted columns, in binding order
+     * @return the <code>INSERT</code> statement which updates the existing row on a conflict of {@link #getConflictColumns(AbstractTable)}
+     */
+    protected String onConflictUpsertSql(AbstractTable<?> abstractTable, List<ColumnMetadata> columns) {
+        char bt = getBacktick();
+        String conflictColumns = "";
+        for (String column : getConflictColumns(abstractTable)) {
+            if (!conflictColumns.equals("")) {
+                conflictColumns += ", ";
             }
+            conflictColumns += bt + column + bt;
+        }
 
-            name = bt + name + bt;
-            if (i == 0) {
-                columns = name;
-                i++;
+        String updates = "";
+        for (ColumnMetadata column : columns) {
+            if (column.isPrimaryKey()) {
                 continue;
             }
-            columns += ", " + name;
-            i++;
+            if (!updates.equals("")) {
+                updates += ", ";
+            }
+            updates += bt + column.getName() + bt + "=excluded." + bt + column.getName() + bt;
         }
+        return buildInsertSql(columns) + " ON CONFLICT (" + conflictColumns + ") " + (updates.equals("") ? "DO NOTHING" : "DO UPDATE SET " + updates);
+    }
 
-        if (i == 0) {
-            throw new IllegalStateException(abstractTable.getRowClass().getName() + " doesn't have any public fields!");
+    /**
+     * @param abstractTable the table
+     * @return the columns used as conflict target of upserts: the primary key, or the first unique key if the
+     * primary key is a single auto increment column
+     */
+    @SuppressWarnings("deprecation")
+    protected List<String> getConflictColumns(AbstractTable<?> abstractTable) {
+        List<String> primaryKeys = new ArrayList<>();
+        for (ColumnMetadata column : abstractTable.getMetadata().getPrimaryKeys()) {
+            primaryKeys.add(column.getName());
+        }
+        List<ColumnMetadata> autoIncrementColumns = abstractTable.getMetadata().getAutoIncrementColumns();
+        if (!primaryKeys.isEmpty() && !(primaryKeys.size() == 1 && autoIncrementColumns.size() == 1
+                                        && autoIncrementColumns.get(0).isPrimaryKey())) {
+            return primaryKeys;
         }
 
-        String valuesPlaceholders = "";
-        for (int k = 0; k < i; k++) {
-            if (k == 0) {
-                valuesPlaceholders = "?";
-                continue;
+        for (ColumnMetadata column : abstractTable.getMetadata().getColumns()) {
+            UniqueKey uniqueKey = column.getUniqueKey();
+            if (column.getColumn().uniqueKey() || uniqueKey != null && uniqueKey.combinationId() == Integer.MAX_VALUE) {
+                return Collections.singletonList(column.getName());
+            }
+            if (uniqueKey != null) {
+                List<String> columns = new ArrayList<>();
+                for (ColumnMetadata other : abstractTable.getMetadata().getColumns()) {
+                    if (other.getUniqueKey() != null && other.getUniqueKey().combinationId() == uniqueKey.combinationId()) {
+                        columns.add(other.getName());
+                    }
+                }
+                return columns;
             }
-            valuesPlaceholders += ",?";
         }
 
-        String sql = "INSERT INTO `{TABLE}` (" + columns + ") " + "VALUES(" + valuesPlaceholders + ")";
-        List<Object> values = new ArrayList<>();
-        for (Field f : fields) {
+        if (!primaryKeys.isEmpty()) {
+            return primaryKeys;
+        }
+        throw new IllegalStateException(abstractTable.getName() + " doesn't have a primary or unique key to detect conflicts");
+    }
+
+    private <T extends Row> T executeInsert(AbstractTable<T> abstractTable, T row, Function<List<ColumnMetadata>, String> sqlBuilder) {
+        Map<Field, String> autoIncrements = assignGeneratedKeys(abstractTable, row);
+        List<ColumnMetadata> columns = getColumns(abstractTable);
+        List<ColumnMetadata> insertColumns = getInsertColumns(columns, row);
+        String sql = sqlBuilder.apply(insertColumns);
+
+        if (autoIncrements.isEmpty()) {
+            // all keys are known already, no need to ask the database for generated keys
             try {
-                values.add(f.get(row));
-            } catch (IllegalAccessException e) {
+                PreparedStatement ps = prepareInsert(abstractTable, sql, null, columns, insertColumns, row);
+                ps.executeUpdate();
+                ps.close();
+            } catch (SQLException e) {
+                onSqlException(e);
                 throw new RuntimeException(e);
             }
+            return row;
         }
 
-        PreparedStatement ps = abstractTable.createPreparedStatement(sql, Statement.RETURN_GENERATED_KEYS, values.toArray(new Object[values.size()]));
+        PreparedStatement ps;
         try {
+            ps = prepareInsert(abstractTable, sql, Statement.RETURN_GENERATED_KEYS, columns, insertColumns, row);
             ps.executeUpdate();
         } catch (SQLException e) {
+            onSqlException(e);
             throw new RuntimeException(e);
         }
 
@@ -658,14 +1112,18 @@ public abstract class SqlDatabase extends Database {
             throw new RuntimeException(e);
         }
 
+        boolean hasKeys = false;
         try {
-            rs.next();
+            hasKeys = rs.next();
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        for (Field f : autoIncrements.keySet()) {
-            abstractTable.setFieldFromResultSet(row, rs, f, autoIncrements.get(f));
+        if (hasKeys) {
+            // no keys are returned if an upsert updated an existing row
+            for (Field f : autoIncrements.keySet()) {
+                abstractTable.setFieldFromResultSet(row, rs, f, autoIncrements.get(f));
+            }
         }
 
         try {
@@ -676,4 +1134,230 @@ public abstract class SqlDatabase extends Database {
 
         return row;
     }
+
+    @Override
+    public <T extends Row> List<T> insertAll(AbstractTable<T> abstractTable, List<T> rows) {
+        Validate.notNull(rows);
+        if (abstractTable.getKeyGenerator() == null && !abstractTable.getMetadata().getAutoIncrementColumns().isEmpty()) {
+            // Generated keys of batches are not reliably supported by drivers
+            return super.insertAll(abstractTable, rows);
+        }
+        insertBatch(abstractTable, rows);
+        return rows;
+    }
+
+    @Override
+    public <T extends Row> void insertBatch(AbstractTable<T> abstractTable, List<T> rows) {
+        executeBatchInsert(abstractTable, rows, false);
+    }
+
+    /**
+     * Inserts the rows with batched <code>INSERT</code> statements<br/>
+     * A new batch is started whenever the inserted columns change, see {@link #omitsUnsetAutoIncrementColumns()}
+     * @param abstractTable the table
+     * @param rows the rows to insert
+     * @param readGeneratedKeys if the generated keys of each batch should be read back into the rows,
+     *                          only use this if the driver returns the keys of all rows of a batch
+     */
+    protected <T extends Row> void executeBatchInsert(AbstractTable<T> abstractTable, List<T> rows, boolean readGeneratedKeys) {
+        Validate.notNull(rows);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<ColumnMetadata> columns = getColumns(abstractTable);
+        List<ColumnMetadata> batchColumns = null;
+        Map<Field, String> autoIncrements = Collections.emptyMap();
+        List<T> batch = new ArrayList<>();
+        PreparedStatement ps = null;
+        try {
+            for (T row : rows) {
+                Validate.notNull(row);
+                autoIncrements = assignGeneratedKeys(abstractTable, row);
+                List<ColumnMetadata> insertColumns = getInsertColumns(columns, row);
+                if (!insertColumns.equals(batchColumns)) {
+                    if (ps != null) {
+                        executeBatch(abstractTable, ps, batch, autoIncrements, readGeneratedKeys);
+                        ps.close();
+                    }
+                    ps = abstractTable.createPreparedStatement(buildInsertSql(insertColumns), readGeneratedKeys ? Statement.RETURN_GENERATED_KEYS : null,
+                                                               new Object[0]);
+                    batchColumns = insertColumns;
+                } else if (batch.size() >= MAX_BATCH_SIZE) {
+                    executeBatch(abstractTable, ps, batch, autoIncrements, readGeneratedKeys);
+                }
+                bindInsert(abstractTable, ps, columns, insertColumns, row);
+                ps.addBatch();
+                batch.add(row);
+            }
+            executeBatch(abstractTable, ps, batch, autoIncrements, readGeneratedKeys);
+        } catch (SQLException e) {
+            onSqlException(e);
+            throw new RuntimeException(e);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException ignored) {
+
+                }
+            }
+        }
+    }
+
+    private <T extends Row> void executeBatch(AbstractTable<T> abstractTable, PreparedStatement ps, List<T> batch, Map<Field, String> autoIncrements,
+                                              boolean readGeneratedKeys) throws SQLException {
+        ps.executeBatch();
+        if (readGeneratedKeys && !autoIncrements.isEmpty()) {
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (T row : batch) {
+                    if (!rs.next()) {
+                        break;
+                    }
+                    for (Field f : autoIncrements.keySet()) {
+                        abstractTable.setFieldFromResultSet(row, rs, f, autoIncrements.get(f));
+                    }
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private <T extends Row> PreparedStatement prepareInsert(AbstractTable<T> abstractTable, String sql, Integer flags, List<ColumnMetadata> columns,
+                                                            List<ColumnMetadata> insertColumns, T row) throws SQLException {
+        PreparedStatement ps = abstractTable.createPreparedStatement(sql, flags, new Object[0]);
+        bindInsert(abstractTable, ps, columns, insertColumns, row);
+        return ps;
+    }
+
+    private <T extends Row> void bindInsert(AbstractTable<T> abstractTable, PreparedStatement ps, List<ColumnMetadata> columns,
+                                            List<ColumnMetadata> insertColumns, T row) throws SQLException {
+        GeneratedRowMapper<T> mapper = abstractTable.getMetadata().getGeneratedMapper();
+        if (mapper != null && insertColumns == columns) {
+            mapper.bind(row, ps);
+        } else {
+            // generated mappers always bind all columns
+            abstractTable.parseBindings(ps, getColumnValues(insertColumns, row));
+        }
+    }
+
+    /**
+     * @param columns all columns of the table, in binding order
+     * @param row the row to insert
+     * @return the given columns without unset auto increment columns if {@link #omitsUnsetAutoIncrementColumns()},
+     * otherwise the given columns
+     */
+    protected List<ColumnMetadata> getInsertColumns(List<ColumnMetadata> columns, Object row) {
+        if (!omitsUnsetAutoIncrementColumns()) {
+            return columns;
+        }
+        List<ColumnMetadata> insertColumns = null;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMetadata column = columns.get(i);
+            if (column.getColumn().autoIncrement() && isUnsetKey(column.get(row))) {
+                if (insertColumns == null) {
+                    insertColumns = new ArrayList<>(columns.subList(0, i));
+                }
+            } else if (insertColumns != null) {
+                insertColumns.add(column);
+            }
+        }
+        return insertColumns == null ? columns : insertColumns;
+    }
+
+    /**
+     * @return true if unset auto increment columns have to be left out of <code>INSERT</code> statements, so the
+     * column default applies, e.g. because identity columns don't accept <code>NULL</code>
+     */
+    protected boolean omitsUnsetAutoIncrementColumns() {
+        return false;
+    }
+
+    private List<ColumnMetadata> getColumns(AbstractTable<?> abstractTable) {
+        TableMetadata<?> metadata = abstractTable.getMetadata();
+        List<ColumnMetadata> columns = metadata.getColumns();
+        if (columns.isEmpty()) {
+            throw new IllegalStateException(abstractTable.getRowClass().getName() + " doesn't have any public fields!");
+        }
+
+        GeneratedRowMapper<?> mapper = metadata.getGeneratedMapper();
+        if (mapper != null) {
+            // generated mappers bind in their own column order
+            List<ColumnMetadata> orderedColumns = new ArrayList<>();
+            for (String name : mapper.getColumnNames()) {
+                orderedColumns.add(metadata.getColumn(name));
+            }
+            return orderedColumns;
+        }
+        return columns;
+    }
+
+    /**
+     * @param columnsMetadata the inserted columns, in binding order
+     * @return the <code>INSERT</code> statement with a placeholder for each column
+     */
+    protected String buildInsertSql(List<ColumnMetadata> columnsMetadata) {
+        char bt = getBacktick();
+        String columns = "";
+        String valuesPlaceholders = "";
+        for (ColumnMetadata column : columnsMetadata) {
+            if (!columns.equals("")) {
+                columns += ", ";
+                valuesPlaceholders += ",";
+            }
+            columns += bt + column.getName() + bt;
+            valuesPlaceholders += "?";
+        }
+
+        return "INSERT INTO " + bt + "{TABLE}" + bt + " (" + columns + ") " + "VALUES(" + valuesPlaceholders + ")";
+    }
+
+    private Object[] getColumnValues(List<ColumnMetadata> columns, Object row) {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns.get(i).get(row);
+        }
+        return values;
+    }
+
+    /**
+     * Assigns keys from the {@link KeyGenerator} of the table to unset auto increment columns
+     * @return the auto increment columns which still need database generated keys
+     */
+    protected Map<Field, String> assignGeneratedKeys(AbstractTable<?> abstractTable, Object row) {
+        Map<Field, String> autoIncrements = new HashMap<>();
+        KeyGenerator keyGenerator = abstractTable.getKeyGenerator();
+        for (ColumnMetadata column : abstractTable.getMetadata().getAutoIncrementColumns()) {
+            if (keyGenerator == null) {
+                autoIncrements.put(column.getField(), column.getName());
+                continue;
+            }
+
+            if (isUnsetKey(column.get(row))) {
+                column.set(row, toKeyType(column.getField(), keyGenerator.nextKey()));
+            }
+        }
+        return autoIncrements;
+    }
+
+    /**
+     * @return true if the value of an auto increment column is <code>NULL</code> or 0, the default of primitive types
+     */
+    private static boolean isUnsetKey(@Nullable Object value) {
+        return value == null || (value instanceof Number && ((Number) value).longValue() == 0);
+    }
+
+    private Object toKeyType(Field f, long key) {
+        Class<?> type = f.getType();
+        if (type == Long.class || type == long.class) {
+            return key;
+        }
+        if (type == Integer.class || type == int.class) {
+            if (key > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Generated key " + key + " doesn't fit into " + f.getDeclaringClass().getName() + "." + f.getName());
+            }
+            return (int) key;
+        }
+        throw new IllegalStateException("Generated keys are not supported for type: " + type.getName());
+    }
 }
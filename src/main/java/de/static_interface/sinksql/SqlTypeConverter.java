@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Converts custom types from and to their native database representation<br/>
+ * Unlike {@link SqlObjectConverter}, values are bound with the typed JDBC setters of {@link PreparedStatement}s
+ * and read back with the typed getters of {@link ResultSet}s, so they don't need to be inlined as SQL literals.<br/>
+ * Register converters with {@link AbstractTable#registerTypeConverter(Class, Class, SqlTypeConverter)}
+ * @param <K> the database type
+ * @param <T> the value type
+ */
+public interface SqlTypeConverter<K, T> {
+
+    /**
+     * @param db the database
+     * @param f the field of the column
+     * @return the SQL type of the column, used on table creation
+     */
+    String getDatabaseType(K db, Field f);
+
+    /**
+     * Bind a value to a {@link PreparedStatement}
+     * @param db the database
+     * @param ps the statement
+     * @param index the parameter index, starting with 1
+     * @param value the value to bind, never null
+     * @throws SQLException if binding fails
+     */
+    void bind(K db, PreparedStatement ps, int index, T value) throws SQLException;
+
+    /**
+     * Read a value from the current row of a {@link ResultSet}
+     * @param db the database
+     * @param rs the {@link ResultSet}
+     * @param column the label of the column
+     * @param type the type of the field which will hold the value
+     * @return the value or null if the column is <code>NULL</code>
+     * @throws SQLException if reading fails
+     */
+    @Nullable
+    T read(K db, ResultSet rs, String column, Class<? extends T> type) throws SQLException;
+
+    /**
+     * Render a value as SQL literal, used when a value is inlined into a query instead of being bound
+     * @param db the database
+     * @param value the value, never null
+     * @return the literal or null if the value can only be bound, e.g. because its stored representation depends on the driver
+     */
+    @Nullable
+    default String toSqlLiteral(K db, T value) {
+        return null;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql;
+
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.annotation.FullTextIndex;
+import de.static_interface.sinksql.annotation.Index;
+import de.static_interface.sinksql.annotation.TableIndex;
+import de.static_interface.sinksql.annotation.UniqueKey;
+import de.static_interface.sinksql.util.ReflectionUtil;
+import de.static_interface.sinksql.util.StringUtil;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * The structure of a {@link Row} class. It is built only once per class and is safe to use from multiple threads
+ * @param <T> the row type
+ */
+public final class TableMetadata<T> {
+
+    private static final ClassValue<TableMetadata<?>> CACHE = new ClassValue<TableMetadata<?>>() {
+        @Override
+        protected TableMetadata<?> computeValue(Class<?> type) {
+            return new TableMetadata<>(type);
+        }
+    };
+
+    private final Class<T> rowClass;
+    private final Constructor<T> constructor;
+    private final List<ColumnMetadata> columns;
+    private final List<ColumnMetadata> primaryKeys;
+    private final List<ColumnMetadata> autoIncrementColumns;
+    private final Map<String, ColumnMetadata> columnsByName;
+    private final List<IndexMetadata> indexes;
+    private final List<IndexMetadata> fullTextIndexes;
+    private final List<IndexMetadata> uniqueKeys;
+    private final GeneratedRowMapper<T> generatedMapper;
+
+    private TableMetadata(Class<T> rowClass) {
+        this.rowClass = rowClass;
+        this.generatedMapper = loadGeneratedMapper(rowClass);
+        ColumnDescriptor[] descriptors = generatedMapper == null ? null : generatedMapper.getColumnDescriptors();
+
+        Constructor<T> ctor = null;
+        if (generatedMapper == null) {
+            try {
+                ctor = rowClass.getConstructor();
+            } catch (NoSuchMethodException ignored) {
+                // only needed for deserialization
+            }
+        }
+        this.constructor = ctor;
+
+        List<ColumnMetadata> columns = new ArrayList<>();
+        List<ColumnMetadata> primaryKeys = new ArrayList<>();
+        List<ColumnMetadata> autoIncrementColumns = new ArrayList<>();
+        Map<String, ColumnMetadata> columnsByName = new HashMap<>();
+        for (ColumnMetadata columnMetadata : descriptors != null ? describeColumns(rowClass, descriptors) : scanColumns(rowClass)) {
+            if (columnsByName.containsKey(columnMetadata.getName())) {
+                continue; // shadowed by a subclass field
+            }
+            columns.add(columnMetadata);
+            columnsByName.put(columnMetadata.getName(), columnMetadata);
+            if (columnMetadata.isPrimaryKey()) {
+                primaryKeys.add(columnMetadata);
+            }
+            if (columnMetadata.isAutoIncrement()) {
+                autoIncrementColumns.add(columnMetadata);
+            }
+        }
+
+        this.columns = Collections.unmodifiableList(columns);
+        this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+        this.autoIncrementColumns = Collections.unmodifiableList(autoIncrementColumns);
+        this.columnsByName = Collections.unmodifiableMap(columnsByName);
+        TableIndex[] tableIndexes = descriptors != null ? generatedMapper.getTableIndexes() : rowClass.getAnnotationsByType(TableIndex.class);
+        this.indexes = Collections.unmodifiableList(loadIndexes(rowClass, tableIndexes, columns, columnsByName));
+        this.fullTextIndexes = Collections.unmodifiableList(loadFullTextIndexes(columns));
+        this.uniqueKeys = Collections.unmodifiableList(loadUniqueKeys(columns));
+    }
+
+    private static List<ColumnMetadata> scanColumns(Class<?> rowClass) {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        for (Field f : ReflectionUtil.getAllFields(rowClass)) {
+            if (Modifier.isStatic(f.getModifiers())) {
+                continue;
+            }
+            Column column = FieldCache.getAnnotation(f, Column.class);
+            if (column != null) {
+                columns.add(new ColumnMetadata(f, column));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Builds the columns from generated descriptors. Only the public fields are looked up, their annotations are put
+     * into the {@link FieldCache}, so they are never read by reflection
+     */
+    private static List<ColumnMetadata> describeColumns(Class<?> rowClass, ColumnDescriptor[] descriptors) {
+        List<ColumnMetadata> columns = new ArrayList<>(descriptors.length);
+        for (ColumnDescriptor descriptor : descriptors) {
+            Field f;
+            try {
+                f = rowClass.getField(descriptor.getFieldName());
+            } catch (NoSuchFieldException e) {
+                throw new RuntimeException("Generated mapper of " + rowClass.getName() + " is outdated: ", e);
+            }
+            for (Class<? extends Annotation> type : ColumnDescriptor.ANNOTATION_TYPES) {
+                FieldCache.put(f, type, descriptor.getAnnotation(type));
+            }
+            columns.add(new ColumnMetadata(f, descriptor.getAnnotation(Column.class)));
+        }
+        return columns;
+    }
+
+    private static List<IndexMetadata> loadIndexes(Class<?> rowClass, TableIndex[] tableIndexes, List<ColumnMetadata> columns,
+                                                   Map<String, ColumnMetadata> columnsByName) {
+        List<IndexMetadata> indexes = new ArrayList<>();
+        Map<String, List<ColumnMetadata>> compositeIndexes = new LinkedHashMap<>();
+        for (ColumnMetadata column : columns) {
+            Index index = column.getIndex();
+            if (index == null) {
+                continue;
+            }
+            if (StringUtil.isEmptyOrNull(index.name())) {
+                indexes.add(new IndexMetadata(null, Collections.singletonList(column.getName()), Collections.singletonList(index.length())));
+                continue;
+            }
+            List<ColumnMetadata> indexColumns = compositeIndexes.get(index.name());
+            if (indexColumns == null) {
+                indexColumns = new ArrayList<>();
+                compositeIndexes.put(index.name(), indexColumns);
+            }
+            indexColumns.add(column);
+        }
+
+        for (Map.Entry<String, List<ColumnMetadata>> entry : compositeIndexes.entrySet()) {
+            List<ColumnMetadata> indexColumns = entry.getValue();
+            indexColumns.sort(Comparator.comparingInt(c -> c.getIndex().order()));
+            List<String> names = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            for (ColumnMetadata column : indexColumns) {
+                names.add(column.getName());
+                lengths.add(column.getIndex().length());
+            }
+            indexes.add(new IndexMetadata(entry.getKey(), names, lengths));
+        }
+
+        for (TableIndex index : tableIndexes) {
+            if (index.columns().length == 0) {
+                throw new RuntimeException("Invalid index " + index.name() + " on " + rowClass.getName() + ": no columns have been specified");
+            }
+            if (index.lengths().length > index.columns().length) {
+                throw new RuntimeException("Invalid index " + index.name() + " on " + rowClass.getName() + ": more lengths than columns");
+            }
+            List<String> names = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            for (int i = 0; i < index.columns().length; i++) {
+                names.add(index.columns()[i]);
+                lengths.add(i < index.lengths().length ? index.lengths()[i] : -1);
+            }
+            for (String column : index.include()) {
+                if (!names.contains(column)) {
+                    names.add(column);
+                    lengths.add(-1);
+                }
+            }
+            for (String column : names) {
+                if (!columnsByName.containsKey(column)) {
+                    throw new RuntimeException("Invalid index " + index.name() + " on " + rowClass.getName() + ": unknown column: " + column);
+                }
+            }
+            indexes.add(new IndexMetadata(index.name(), names, lengths));
+        }
+        return indexes;
+    }
+
+    private static List<IndexMetadata> loadFullTextIndexes(List<ColumnMetadata> columns) {
+        Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+        for (ColumnMetadata column : columns) {
+            FullTextIndex index = FieldCache.getAnnotation(column.getField(), FullTextIndex.class);
+            if (index == null) {
+                continue;
+            }
+            String name = StringUtil.isEmptyOrNull(index.name()) ? column.getName() + "_FT_{TABLE}" : index.name();
+            List<String> names = indexColumns.get(name);
+            if (names == null) {
+                names = new ArrayList<>();
+                indexColumns.put(name, names);
+            }
+            names.add(column.getName());
+        }
+
+        List<IndexMetadata> indexes = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : indexColumns.entrySet()) {
+            indexes.add(new IndexMetadata(entry.getKey(), entry.getValue(), Collections.nCopies(entry.getValue().size(), -1)));
+        }
+        return indexes;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static List<IndexMetadata> loadUniqueKeys(List<ColumnMetadata> columns) {
+        List<IndexMetadata> uniqueKeys = new ArrayList<>();
+        Map<Integer, List<String>> combinedKeys = new LinkedHashMap<>();
+        for (ColumnMetadata column : columns) {
+            UniqueKey uniqueKey = column.getUniqueKey();
+            if (column.getColumn().uniqueKey() || uniqueKey != null && uniqueKey.combinationId() == Integer.MAX_VALUE) {
+                uniqueKeys.add(new IndexMetadata("{TABLE}_" + column.getName() + "_uk", Collections.singletonList(column.getName()),
+                                                 Collections.singletonList(-1)));
+            } else if (uniqueKey != null) {
+                combinedKeys.computeIfAbsent(uniqueKey.combinationId(), id -> new ArrayList<>()).add(column.getName());
+            }
+        }
+
+        for (List<String> names : combinedKeys.values()) {
+            uniqueKeys.add(new IndexMetadata("{TABLE}_" + names.get(0) + "_uk", names, Collections.nCopies(names.size(), -1)));
+        }
+        return uniqueKeys;
+    }
+
+    private static <T> GeneratedRowMapper<T> loadGeneratedMapper(Class<T> rowClass) {
+        String packageName = rowClass.getPackage() == null ? "" : rowClass.getPackage().getName();
+        String simpleName = packageName.isEmpty() ? rowClass.getName() : rowClass.getName().substring(packageName.length() + 1);
+        String mapperName = (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + GeneratedRowMapper.CLASS_SUFFIX;
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(mapperName, true, rowClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null; // the annotation processor has not been used for this class
+        }
+
+        if (!GeneratedRowMapper.class.isAssignableFrom(mapperClass)) {
+            return null;
+        }
+
+        try {
+            return (GeneratedRowMapper<T>) mapperClass.getConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't create generated mapper " + mapperName + ": ", e);
+        }
+    }
+
+    /**
+     * @param rowClass the row class
+     * @return the cached metadata of the given row class
+     */
+    public static <T> TableMetadata<T> of(Class<T> rowClass) {
+        return (TableMetadata<T>) CACHE.get(rowClass);
+    }
+
+    /**
+     * @return the row class
+     */
+    public Class<T> getRowClass() {
+        return rowClass;
+    }
+
+    /**
+     * @return all columns in declaration order, fields of subclasses first
+     */
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param name the name of the column
+     * @return the column or null if the row class doesn't have a column with this name
+     */
+    @Nullable
+    public ColumnMetadata getColumn(String name) {
+        return columnsByName.get(name);
+    }
+
+    /**
+     * @return the columns of the <code>PRIMARY KEY</code>
+     */
+    public List<ColumnMetadata> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    /**
+     * @return the {@link Column#autoIncrement()} columns
+     */
+    public List<ColumnMetadata> getAutoIncrementColumns() {
+        return autoIncrementColumns;
+    }
+
+    /**
+     * @return the indexes declared by {@link Index} and {@link TableIndex}
+     */
+    public List<IndexMetadata> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * @return the indexes declared by {@link FullTextIndex}
+     */
+    public List<IndexMetadata> getFullTextIndexes() {
+        return fullTextIndexes;
+    }
+
+    /**
+     * @return the unique keys declared by {@link UniqueKey} and {@link Column#uniqueKey()}
+     */
+    public List<IndexMetadata> getUniqueKeys() {
+        return uniqueKeys;
+    }
+
+    /**
+     * @return the generated mapper of the row class or null if the annotation processor has not been used
+     */
+    @Nullable
+    public GeneratedRowMapper<T> getGeneratedMapper() {
+        return generatedMapper;
+    }
+
+    /**
+     * @return a new instance of the row class
+     */
+    public T newInstance() {
+        if (generatedMapper != null) {
+            return generatedMapper.newInstance();
+        }
+        if (constructor == null) {
+            throw new RuntimeException("Invalid row class: " + rowClass.getName() + ": Constructor shouldn't accept arguments!");
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Deserializing failed: ", e);
+        }
+    }
+}
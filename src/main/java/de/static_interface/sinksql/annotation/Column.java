@@ -20,6 +20,7 @@ package de.static_interface.sinksql.annotation;
 import de.static_interface.sinksql.AbstractTable;
 import de.static_interface.sinksql.CascadeAction;
 import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.key.KeyGenerator;
 import de.static_interface.sinksql.util.ReflectionUtil;
 
 import java.lang.annotation.ElementType;
@@ -44,7 +45,9 @@ public @interface Column {
 
     /**
      * True means that the value  will be auto incremented when {@link AbstractTable#insert(Row)} is called. <br/><br/>
-     * Throws an exception on {@link AbstractTable#create()} if {@link ReflectionUtil#isNumber(Class)} returns false on this field
+     * Throws an exception on {@link AbstractTable#create()} if {@link ReflectionUtil#isNumber(Class)} returns false on this field<br/>
+     * If the table has a {@link KeyGenerator}, the value will be assigned on the client side instead
+     * @see AbstractTable#setKeyGenerator(KeyGenerator)
      * @return true if auto increment the column value on insert
      */
     boolean autoIncrement() default false;
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.annotation;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.query.Query;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Adds the column to a full-text index, which can be searched with {@link Query#match(Object, String...)}<br/><br/>
+ * <b>Example:</b><br/>
+ * <code>
+ *     &#64;Column<br/>
+ *     &#64;FullTextIndex(name = "{TABLE}_text")<br/>
+ *     public String title;<br/><br/>
+ *     &#64;Column<br/>
+ *     &#64;FullTextIndex(name = "{TABLE}_text")<br/>
+ *     public String body;<br/>
+ * </code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface FullTextIndex {
+
+    /**
+     * The name of the index. Default will be <code>columname_FT_{TABLE}</code> if no other name has been specified.<br/>
+     * Fields which share the same name form one index, <code>{TABLE}</code> will be replaced with
+     * {@link AbstractTable#getName()}
+     * @return the name of the index
+     */
+    String name() default "";
+}
@@ -37,8 +37,32 @@ public @interface Index {
      *     public int userId;<br/>
      * </code>
      * The default <code>name</code> would be in this case <code>user_id_I</code><br/><br/>
+     * Fields which share the same name form a composite index, <code>{TABLE}</code> will be replaced with
+     * {@link AbstractTable#getName()}<br/>
      * Throws an exception on {@link AbstractTable#create()} if an index with this name already exists
      * @return the name of the index
      */
     String name() default "";
+
+    /**
+     * The position of this column in a composite index, see {@link #name()}<br/><br/>
+     * <b>Example:</b><br/>
+     * <code>
+     *     &#64;Column<br/>
+     *     &#64;Index(name = "{TABLE}_owner_created", order = 0)<br/>
+     *     public int owner;<br/><br/>
+     *     &#64;Column<br/>
+     *     &#64;Index(name = "{TABLE}_owner_created", order = 1)<br/>
+     *     public long created;<br/>
+     * </code>
+     * @return the position of the column
+     */
+    int order() default 0;
+
+    /**
+     * The amount of characters of the column to index or -1 to index the whole value<br/>
+     * Long <code>VARCHAR</code>s need a prefix on MySQL. Ignored if the database doesn't support index prefixes
+     * @return the prefix length of the column
+     */
+    int length() default -1;
 }
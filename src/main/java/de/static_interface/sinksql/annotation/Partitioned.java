@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.annotation;
+
+import de.static_interface.sinksql.PartitionType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Partitions the table of a {@link de.static_interface.sinksql.Row} class. Only used by databases which support
+ * storage engines.<br/>
+ * MySQL requires the partition column to be part of every primary and unique key, and partitioned tables can't have
+ * foreign keys.<br/><br/>
+ * <b>Example:</b> one partition per day on a column which contains epoch milliseconds<br/>
+ * <code>
+ *     &#64;Partitioned(type = PartitionType.RANGE, column = "created", rangeSize = 86400000L)
+ * </code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Partitioned {
+
+    /**
+     * @return the partitioning type
+     */
+    PartitionType type();
+
+    /**
+     * @return the name of the partition column
+     */
+    String column();
+
+    /**
+     * An optional SQL function applied to the column for {@link PartitionType#RANGE}, e.g. <code>TO_DAYS</code> for
+     * <code>DATETIME</code> columns. The partition boundaries are values of the function
+     * @return the function name
+     */
+    String function() default "";
+
+    /**
+     * The size of each range for {@link PartitionType#RANGE}. New tables only have a catch-all partition, ranges
+     * are added by {@link de.static_interface.sinksql.maintenance.PartitionManager#createPartitions(long, long)}
+     * @return the size of a single range
+     */
+    long rangeSize() default 0;
+
+    /**
+     * @return the count of partitions for {@link PartitionType#HASH} and {@link PartitionType#KEY}
+     */
+    int partitions() default 8;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.annotation;
+
+import de.static_interface.sinksql.AbstractTable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an index on a {@link de.static_interface.sinksql.Row} class, mainly for indexes over multiple columns<br/><br/>
+ * <b>Example:</b><br/>
+ * <code>
+ *     &#64;TableIndex(name = "{TABLE}_owner_created", columns = {"owner", "created"}, include = {"state"})<br/>
+ *     public class ItemRow implements Row { ... }
+ * </code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(TableIndexes.class)
+public @interface TableIndex {
+
+    /**
+     * <code>{TABLE}</code> will be replaced with {@link AbstractTable#getName()}<br/>
+     * Throws an exception on {@link AbstractTable#create()} if an index with this name already exists
+     * @return the name of the index
+     */
+    String name();
+
+    /**
+     * @return the names of the indexed columns, in index order
+     */
+    String[] columns();
+
+    /**
+     * The prefix lengths of the {@link #columns()} at the same position, -1 indexes the whole value. Missing entries
+     * default to -1
+     * @return the prefix lengths
+     * @see Index#length()
+     */
+    int[] lengths() default {};
+
+    /**
+     * Columns which are only added to cover queries, so they can be answered from the index alone.
+     * They are appended after the {@link #columns()}, since MySQL doesn't support <code>INCLUDE</code>
+     * @return the names of the covered columns
+     */
+    String[] include() default {};
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows of a {@link de.static_interface.sinksql.Row} class expire after the given time and are deleted by the
+ * {@link de.static_interface.sinksql.maintenance.ExpiryService}<br/><br/>
+ * <b>Example:</b><br/>
+ * <code>
+ *     &#64;TimeToLive(column = "created", value = 30, unit = TimeUnit.DAYS)
+ * </code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TimeToLive {
+
+    /**
+     * The column which contains the creation time of a row. Supported are epoch milliseconds in <code>long</code>
+     * columns, epoch seconds in <code>int</code> columns and the temporal types
+     * @return the name of the column
+     */
+    String column();
+
+    /**
+     * @return the time to live
+     */
+    long value();
+
+    /**
+     * @return the unit of {@link #value()}
+     */
+    TimeUnit unit() default TimeUnit.DAYS;
+}
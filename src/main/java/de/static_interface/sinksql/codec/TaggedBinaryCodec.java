@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary codec for primitives, strings, lists, sets and maps<br/>
+ * Every value starts with a one byte tag, integers are written as zigzag varints. Values of other types are
+ * written with the fallback codec (Java serialization by default).<br/>
+ * Only {@link ArrayList}, {@link HashSet} and {@link HashMap} (including their linked variants) are written as
+ * collections, since they are decoded as {@link ArrayList}, {@link LinkedHashSet} and {@link LinkedHashMap}.
+ */
+public class TaggedBinaryCodec implements ValueCodec {
+
+    public static final TaggedBinaryCodec INSTANCE = new TaggedBinaryCodec(JavaSerializationCodec.INSTANCE);
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte CHAR = 9;
+    private static final byte STRING = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte FALLBACK = 15;
+
+    private final ValueCodec fallback;
+
+    /**
+     * @param fallback the codec for values which can't be encoded by this codec
+     */
+    public TaggedBinaryCodec(ValueCodec fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Writer writer = new Writer();
+        write(writer, value);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        Object value = read(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected trailing data: " + buffer.remaining() + " bytes");
+        }
+        return value;
+    }
+
+    private void write(Writer writer, Object value) {
+        if (value == null) {
+            writer.write(NULL);
+        } else if (value instanceof Boolean) {
+            writer.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Byte) {
+            writer.write(BYTE);
+            writer.write((Byte) value);
+        } else if (value instanceof Short) {
+            writer.write(SHORT);
+            writer.writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Integer) {
+            writer.write(INT);
+            writer.writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            writer.write(LONG);
+            writer.writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Float) {
+            writer.write(FLOAT);
+            writer.writeFixed(Float.floatToIntBits((Float) value), 4);
+        } else if (value instanceof Double) {
+            writer.write(DOUBLE);
+            writer.writeFixed(Double.doubleToLongBits((Double) value), 8);
+        } else if (value instanceof Character) {
+            writer.write(CHAR);
+            writer.writeVarLong((Character) value);
+        } else if (value instanceof String) {
+            writer.write(STRING);
+            writer.writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            writer.write(BYTES);
+            writer.writeBytes((byte[]) value);
+        } else if (value.getClass() == ArrayList.class) {
+            writer.write(LIST);
+            writeCollection(writer, (Collection<?>) value);
+        } else if (value.getClass() == HashSet.class || value.getClass() == LinkedHashSet.class) {
+            writer.write(SET);
+            writeCollection(writer, (Collection<?>) value);
+        } else if (value.getClass() == HashMap.class || value.getClass() == LinkedHashMap.class) {
+            writer.write(MAP);
+            Map<?, ?> map = (Map<?, ?>) value;
+            writer.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(writer, entry.getKey());
+                write(writer, entry.getValue());
+            }
+        } else {
+            writer.write(FALLBACK);
+            writer.writeBytes(fallback.encode(value));
+        }
+    }
+
+    private void writeCollection(Writer writer, Collection<?> collection) {
+        writer.writeVarLong(collection.size());
+        for (Object o : collection) {
+            write(writer, o);
+        }
+    }
+
+    private Object read(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case BYTE:
+                return buffer.get();
+            case SHORT:
+                return (short) unZigZag(readVarLong(buffer));
+            case INT:
+                return (int) unZigZag(readVarLong(buffer));
+            case LONG:
+                return unZigZag(readVarLong(buffer));
+            case FLOAT:
+                return buffer.getFloat();
+            case DOUBLE:
+                return buffer.getDouble();
+            case CHAR:
+                return (char) readVarLong(buffer);
+            case STRING:
+                return new String(readBytes(buffer), StandardCharsets.UTF_8);
+            case BYTES:
+                return readBytes(buffer);
+            case LIST: {
+                int size = readSize(buffer);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(buffer));
+                }
+                return list;
+            }
+            case SET: {
+                int size = readSize(buffer);
+                LinkedHashSet<Object> set = new LinkedHashSet<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    set.add(read(buffer));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = readSize(buffer);
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    Object key = read(buffer);
+                    map.put(key, read(buffer));
+                }
+                return map;
+            }
+            case FALLBACK:
+                return fallback.decode(readBytes(buffer));
+            default:
+                throw new IllegalArgumentException("Unknown tag: " + tag);
+        }
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] data = new byte[readSize(buffer)];
+        buffer.get(data);
+        return data;
+    }
+
+    private static int readSize(ByteBuffer buffer) {
+        long size = readVarLong(buffer);
+        if (size < 0 || size > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        return (int) size;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[32];
+        private int position;
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+
+        void write(byte b) {
+            ensureCapacity(1);
+            buffer[position++] = b;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFixed(long value, int bytes) {
+            ensureCapacity(bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                buffer[position++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeBytes(byte[] data) {
+            writeVarLong(data.length);
+            ensureCapacity(data.length);
+            System.arraycopy(data, 0, buffer, position, data.length);
+            position += data.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+}
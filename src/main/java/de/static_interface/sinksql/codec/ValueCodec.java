@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.codec;
+
+/**
+ * Converts arbitrary values from and to their binary representation
+ */
+public interface ValueCodec {
+
+    /**
+     * @param value the value to encode, may be null
+     * @return the encoded value
+     */
+    byte[] encode(Object value);
+
+    /**
+     * @param data the data which was created by {@link #encode(Object)}
+     * @return the decoded value
+     */
+    Object decode(byte[] data);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.BinaryValue;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams {@link BinaryValue}s to <code>LONGBLOB</code> columns without copying them. Values are read as byte arrays, since
+ * the {@link ResultSet} is closed once the row has been mapped, see {@link de.static_interface.sinksql.query.Query#readBinary}
+ * for streaming reads
+ */
+public class BinaryValueConverter implements SqlTypeConverter<Database, BinaryValue> {
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        return "LONGBLOB";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, BinaryValue value) throws SQLException {
+        InputStream in = value.getInputStream();
+        long length = value.length();
+        if (length >= 0) {
+            ps.setBinaryStream(index, in, length);
+        } else {
+            ps.setBinaryStream(index, in);
+        }
+    }
+
+    @Override
+    public BinaryValue read(Database db, ResultSet rs, String column, Class<? extends BinaryValue> type) throws SQLException {
+        byte[] bytes = rs.getBytes(column);
+        return bytes == null ? null : BinaryValue.of(bytes);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.FieldCache;
+import de.static_interface.sinksql.SqlTypeConverter;
+import de.static_interface.sinksql.annotation.Column;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Stores byte[] as <code>LONGBLOB</code>, or as <code>VARBINARY</code> if {@link Column#keyLength()} has been set
+ */
+public class ByteArrayConverter implements SqlTypeConverter<Database, byte[]> {
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        Column column = FieldCache.getAnnotation(f, Column.class);
+        if (column != null && column.keyLength() >= 0) {
+            return "VARBINARY(" + column.keyLength() + ")";
+        }
+        return "LONGBLOB";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, byte[] value) throws SQLException {
+        ps.setBytes(index, value);
+    }
+
+    @Override
+    public byte[] read(Database db, ResultSet rs, String column, Class<? extends byte[]> type) throws SQLException {
+        return rs.getBytes(column);
+    }
+
+    @Override
+    public String toSqlLiteral(Database db, byte[] value) {
+        return db.binaryToSql(value);
+    }
+}
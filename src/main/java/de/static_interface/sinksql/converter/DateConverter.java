@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Stores {@link Date}s and {@link Timestamp}s as <code>DATETIME(3)</code> and {@link java.sql.Date}s as <code>DATE</code>
+ */
+public class DateConverter implements SqlTypeConverter<Database, Date> {
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        if (java.sql.Date.class.isAssignableFrom(f.getType())) {
+            return "DATE";
+        }
+        return "DATETIME(3)";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, Date value) throws SQLException {
+        if (value instanceof java.sql.Date) {
+            ps.setDate(index, (java.sql.Date) value);
+        } else if (value instanceof Timestamp) {
+            ps.setTimestamp(index, (Timestamp) value);
+        } else {
+            ps.setTimestamp(index, new Timestamp(value.getTime()));
+        }
+    }
+
+    @Override
+    public Date read(Database db, ResultSet rs, String column, Class<? extends Date> type) throws SQLException {
+        if (java.sql.Date.class.isAssignableFrom(type)) {
+            return rs.getDate(column);
+        }
+
+        Timestamp timestamp = rs.getTimestamp(column);
+        if (timestamp == null || type.isInstance(timestamp)) {
+            return timestamp;
+        }
+        return new Date(timestamp.getTime());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.CodedEnum;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores enums as <code>TINYINT</code> or <code>SMALLINT</code><br/>
+ * The stored value is the ordinal of the constant, or {@link CodedEnum#getCode()} if the enum implements {@link CodedEnum}.
+ * Since ordinals change when constants are reordered, enums which may change should implement {@link CodedEnum}.
+ */
+public class EnumConverter implements SqlTypeConverter<Database, Enum<?>> {
+
+    private static final ClassValue<Map<Integer, Enum<?>>> CONSTANTS = new ClassValue<Map<Integer, Enum<?>>>() {
+        @Override
+        protected Map<Integer, Enum<?>> computeValue(Class<?> type) {
+            Map<Integer, Enum<?>> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                Enum<?> previous = constants.put(toCode((Enum<?>) constant), (Enum<?>) constant);
+                if (previous != null) {
+                    throw new IllegalStateException("Enum " + type.getName() + " has duplicate codes: " + previous + ", " + constant);
+                }
+            }
+            return constants;
+        }
+    };
+
+    private static int toCode(Enum<?> value) {
+        if (value instanceof CodedEnum) {
+            return ((CodedEnum) value).getCode();
+        }
+        return value.ordinal();
+    }
+
+    private static Class<?> getEnumClass(Class<?> type) {
+        return type.isEnum() ? type : type.getSuperclass(); // constants with bodies are subclasses
+    }
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        int max = 0;
+        for (Integer code : CONSTANTS.get(getEnumClass(f.getType())).keySet()) {
+            max = Math.max(max, Math.abs(code));
+        }
+        if (max <= Byte.MAX_VALUE) {
+            return "TINYINT";
+        }
+        if (max <= Short.MAX_VALUE) {
+            return "SMALLINT";
+        }
+        return "INT";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, Enum<?> value) throws SQLException {
+        ps.setInt(index, toCode(value));
+    }
+
+    @Override
+    public Enum<?> read(Database db, ResultSet rs, String column, Class<? extends Enum<?>> type) throws SQLException {
+        int code = rs.getInt(column);
+        if (rs.wasNull()) {
+            return null;
+        }
+        Enum<?> value = CONSTANTS.get(getEnumClass(type)).get(code);
+        if (value == null) {
+            throw new IllegalStateException("Unknown code " + code + " for enum " + type.getName() + " in column " + column);
+        }
+        return value;
+    }
+
+    @Override
+    public String toSqlLiteral(Database db, Enum<?> value) {
+        return String.valueOf(toCode(value));
+    }
+}
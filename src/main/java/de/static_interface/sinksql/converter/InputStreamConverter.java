@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.BinaryValue;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Allows {@link InputStream}s as bindings, they will be streamed with <code>setBinaryStream</code><br/>
+ * Columns are read back as {@link ByteArrayInputStream}s, since the {@link ResultSet} is closed once the row has been mapped.
+ * Fields have to be declared as {@link InputStream}, use {@link BinaryValue} columns to read the length without a stream
+ * and {@link de.static_interface.sinksql.query.Query#readBinary} to stream large values without copying them.
+ */
+public class InputStreamConverter implements SqlTypeConverter<Database, InputStream> {
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        if (!f.getType().isAssignableFrom(ByteArrayInputStream.class)) {
+            throw new IllegalArgumentException("Field " + f.getName() + " can't hold the read values, declare it as " + InputStream.class.getName());
+        }
+        return "LONGBLOB";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, InputStream value) throws SQLException {
+        ps.setBinaryStream(index, value);
+    }
+
+    @Override
+    public InputStream read(Database db, ResultSet rs, String column, Class<? extends InputStream> type) throws SQLException {
+        byte[] bytes = rs.getBytes(column);
+        return bytes == null ? null : new ByteArrayInputStream(bytes);
+    }
+}
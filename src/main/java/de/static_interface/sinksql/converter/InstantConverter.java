@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Stores {@link Instant}s as <code>DATETIME(3)</code> in UTC
+ */
+public class InstantConverter implements SqlTypeConverter<Database, Instant> {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        return "DATETIME(3)";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, Instant value) throws SQLException {
+        ps.setTimestamp(index, Timestamp.from(value), Calendar.getInstance(UTC));
+    }
+
+    @Override
+    public Instant read(Database db, ResultSet rs, String column, Class<? extends Instant> type) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column, Calendar.getInstance(UTC));
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Stores {@link UUID}s in the native <code>UUID</code> type of databases which have one, e.g. PostgreSQL
+ */
+public class NativeUuidConverter implements SqlTypeConverter<Database, UUID> {
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        return "UUID";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, UUID value) throws SQLException {
+        ps.setObject(index, value);
+    }
+
+    @Override
+    public UUID read(Database db, ResultSet rs, String column, Class<? extends UUID> type) throws SQLException {
+        return rs.getObject(column, UUID.class);
+    }
+
+    @Override
+    public String toSqlLiteral(Database db, UUID value) {
+        return db.stringify(value.toString());
+    }
+}
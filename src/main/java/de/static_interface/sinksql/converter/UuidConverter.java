@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.converter;
+
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlTypeConverter;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Stores {@link UUID}s as <code>BINARY(16)</code> instead of 36 characters
+ */
+public class UuidConverter implements SqlTypeConverter<Database, UUID> {
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Invalid UUID length: " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public String getDatabaseType(Database db, Field f) {
+        return "BINARY(16)";
+    }
+
+    @Override
+    public void bind(Database db, PreparedStatement ps, int index, UUID value) throws SQLException {
+        ps.setBytes(index, toBytes(value));
+    }
+
+    @Override
+    public UUID read(Database db, ResultSet rs, String column, Class<? extends UUID> type) throws SQLException {
+        byte[] bytes = rs.getBytes(column);
+        return bytes == null ? null : fromBytes(bytes);
+    }
+
+    @Override
+    public String toSqlLiteral(Database db, UUID value) {
+        return db.binaryToSql(toBytes(value));
+    }
+}
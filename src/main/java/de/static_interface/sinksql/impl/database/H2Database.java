@@ -19,11 +19,23 @@ package de.static_interface.sinksql.impl.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
 import de.static_interface.sinksql.DatabaseConnectionInfo;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.Row;
 import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.query.condition.MatchCondition;
+import de.static_interface.sinksql.query.impl.WhereQuery;
+import de.static_interface.sinksql.util.StringUtil;
 
 import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * H2 database implementation<br/>
@@ -32,12 +44,22 @@ import java.sql.SQLException;
 public class H2Database extends SqlDatabase {
 
     private final File dbFile;
+    private final H2Options options;
 
     /**
      * @param file the file to be used for storage
      * @param prefix the prefix for tables
      */
     public H2Database(File file, final String prefix) {
+        this(file, prefix, new H2Options());
+    }
+
+    /**
+     * @param file the file to be used for storage
+     * @param prefix the prefix for tables
+     * @param options the storage and connection settings
+     */
+    public H2Database(File file, final String prefix, H2Options options) {
         super(new DatabaseConnectionInfo() {
             @Override
             public String getAddress() {
@@ -70,22 +92,95 @@ public class H2Database extends SqlDatabase {
             }
         }, '\0');
         dbFile = file;
+        this.options = options;
     }
 
     @Override
     protected void setupConfig() {
         HikariConfig config = new HikariConfig();
-        config.setMaximumPoolSize(10);
+        config.setMaximumPoolSize(options.getMaximumPoolSize());
         config.setDataSourceClassName("org.h2.jdbcx.JdbcDataSource");
         config.addDataSourceProperty("user", "sa");
-        config.addDataSourceProperty("url", "jdbc:h2:file:" + dbFile.getAbsolutePath()
-                                            + ";MV_STORE=FALSE;MODE=MySQL;IGNORECASE=TRUE");
+        config.addDataSourceProperty("url", getJdbcUrl());
         config.setConnectionTimeout(5000);
         dataSource = new HikariDataSource(config);
     }
 
+    /**
+     * @return the settings of this database
+     */
+    public H2Options getOptions() {
+        return options;
+    }
+
+    /**
+     * @return the JDBC URL built from the {@link H2Options}
+     */
+    protected String getJdbcUrl() {
+        return getJdbcUrl(options.isMvStore());
+    }
+
+    private String getJdbcUrl(boolean mvStore) {
+        String url = "jdbc:h2:file:" + dbFile.getAbsolutePath() + ";MV_STORE=" + (mvStore ? "TRUE" : "FALSE") + ";MODE=MySQL;IGNORECASE=TRUE";
+        if (options.getCacheSize() >= 0) {
+            url += ";CACHE_SIZE=" + options.getCacheSize();
+        }
+        if (options.isCompress() && mvStore) {
+            url += ";COMPRESS=TRUE";
+        }
+        if (options.getWriteDelay() >= 0) {
+            url += ";WRITE_DELAY=" + options.getWriteDelay();
+        }
+        if (options.isMultiThreaded()) {
+            url += ";MULTI_THREADED=TRUE";
+        }
+        return url;
+    }
+
+    /**
+     * Converts an existing PageStore file into a MVStore file by exporting it with <code>SCRIPT</code> and importing
+     * it with <code>RUNSCRIPT</code>. The PageStore file is kept as <code>.h2.db.bak</code> backup
+     * @throws SQLException if the conversion failed, the PageStore file will be restored
+     */
+    protected void migratePageStore() throws SQLException {
+        String path = dbFile.getAbsolutePath();
+        File pageStoreFile = new File(path + ".h2.db");
+        File mvStoreFile = new File(path + ".mv.db");
+        if (!pageStoreFile.exists() || mvStoreFile.exists()) {
+            return;
+        }
+
+        System.out.println("Converting H2 database " + pageStoreFile.getName() + " to MVStore...");
+        File scriptFile = new File(path + ".migration.sql");
+        File backupFile = new File(path + ".h2.db.bak");
+        String script = scriptFile.getAbsolutePath().replace("'", "''");
+
+        try (Connection c = DriverManager.getConnection(getJdbcUrl(false), "sa", "")) {
+            c.createStatement().execute("SCRIPT TO '" + script + "'");
+        }
+
+        if (!pageStoreFile.renameTo(backupFile)) {
+            scriptFile.delete();
+            throw new SQLException("Couldn't create backup " + backupFile.getName());
+        }
+
+        try (Connection c = DriverManager.getConnection(getJdbcUrl(true), "sa", "")) {
+            c.createStatement().execute("RUNSCRIPT FROM '" + script + "'");
+        } catch (SQLException e) {
+            mvStoreFile.delete();
+            backupFile.renameTo(pageStoreFile);
+            throw e;
+        } finally {
+            scriptFile.delete();
+        }
+        System.out.println("Converted H2 database, the old file has been kept as " + backupFile.getName());
+    }
+
     @Override
-    public void connect() throws SQLException {
+    public synchronized void connect() throws SQLException {
+        if (options.isMvStore() && options.isMigratePageStore()) {
+            migratePageStore();
+        }
         setupConfig();
         try {
             connection = dataSource.getConnection();
@@ -93,10 +188,12 @@ public class H2Database extends SqlDatabase {
             dataSource.close();
             throw e;
         }
+        setConnected(true);
     }
 
     @Override
-    public void close() throws SQLException {
+    public synchronized void close() throws SQLException {
+        setConnected(false);
         if (connection != null) {
             connection.close();
         }
@@ -110,4 +207,68 @@ public class H2Database extends SqlDatabase {
     protected boolean supportsEngines() {
         return false;
     }
+
+    @Override
+    public boolean supportsDeleteLimit() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsIndexPrefixes() {
+        return false;
+    }
+
+    /**
+     * H2 allows only one full-text index per table, so all {@link de.static_interface.sinksql.annotation.FullTextIndex}
+     * columns of a table will be added to a single index
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public <T extends Row> void createTable(AbstractTable<T> abstractTable) {
+        super.createTable(abstractTable);
+
+        List<String> columns = new ArrayList<>();
+        for (IndexMetadata index : abstractTable.getMetadata().getFullTextIndexes()) {
+            columns.addAll(index.getColumns());
+        }
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        abstractTable.executeUpdate("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+        abstractTable.executeUpdate("CALL FT_INIT()");
+
+        String tableName = abstractTable.getName().toUpperCase();
+        try {
+            ResultSet rs = abstractTable.executeQuery("SELECT COUNT(*) FROM FT.INDEXES WHERE \"SCHEMA\"='PUBLIC' AND \"TABLE\"=?", tableName);
+            boolean exists = rs.next() && rs.getInt(1) > 0;
+            rs.close();
+            if (exists) {
+                return;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        abstractTable.executeUpdate("CALL FT_CREATE_INDEX('PUBLIC', ?, ?)", tableName,
+                                    StringUtil.formatArrayToString(columns.toArray(), ",").toUpperCase());
+    }
+
+    @Override
+    protected String fullTextIndexToSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        return null; // created by createTable
+    }
+
+    @Override
+    protected String matchToSql(WhereQuery tQuery, MatchCondition condition, String value) {
+        List<ColumnMetadata> primaryKeys = tQuery.getTable().getMetadata().getPrimaryKeys();
+        if (primaryKeys.size() != 1) {
+            throw new IllegalStateException("Full-text search on H2 requires a single primary key column on " + tQuery.getTable().getName());
+        }
+
+        // FT_SEARCH_DATA searches all full-text columns of the table and returns the primary keys of the matching rows
+        return primaryKeys.get(0).getName() + (condition.isNegated() ? " NOT IN " : " IN ")
+               + "(SELECT ARRAY_GET(FT.KEYS, 1) FROM FT_SEARCH_DATA(" + value + ", 0, 0) FT WHERE FT.\"TABLE\"='"
+               + tQuery.getTable().getName().toUpperCase() + "')";
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+/**
+ * Storage and connection settings of an {@link H2Database}<br/>
+ * The defaults match the previous hard-coded settings: PageStore engine and H2's default cache and write delay.
+ */
+public class H2Options {
+
+    private boolean mvStore = false;
+    private int cacheSize = -1;
+    private boolean compress = false;
+    private int writeDelay = -1;
+    private boolean multiThreaded = false;
+    private int maximumPoolSize = 10;
+    private boolean migratePageStore = true;
+
+    /**
+     * @return true if the MVStore engine is used instead of the legacy PageStore
+     */
+    public boolean isMvStore() {
+        return mvStore;
+    }
+
+    /**
+     * @param mvStore true to use the MVStore engine instead of the legacy PageStore
+     * @return this
+     */
+    public H2Options setMvStore(boolean mvStore) {
+        this.mvStore = mvStore;
+        return this;
+    }
+
+    /**
+     * @return the cache size in KB or -1 for the H2 default
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * @param cacheSize the cache size in KB or -1 for the H2 default
+     * @return this
+     */
+    public H2Options setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * @return true if the data is compressed, only supported by the MVStore engine
+     */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * @param compress true to compress the data, only supported by the MVStore engine
+     * @return this
+     */
+    public H2Options setCompress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    /**
+     * @return the maximum delay in milliseconds between a commit and writing it to disk or -1 for the H2 default
+     */
+    public int getWriteDelay() {
+        return writeDelay;
+    }
+
+    /**
+     * @param writeDelay the maximum delay in milliseconds between a commit and writing it to disk or -1 for the H2 default
+     * @return this
+     */
+    public H2Options setWriteDelay(int writeDelay) {
+        this.writeDelay = writeDelay;
+        return this;
+    }
+
+    /**
+     * @return true if statements of different connections are executed concurrently
+     */
+    public boolean isMultiThreaded() {
+        return multiThreaded;
+    }
+
+    /**
+     * @param multiThreaded true to execute statements of different connections concurrently
+     * @return this
+     */
+    public H2Options setMultiThreaded(boolean multiThreaded) {
+        this.multiThreaded = multiThreaded;
+        return this;
+    }
+
+    /**
+     * @return the maximum size of the connection pool
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * @param maximumPoolSize the maximum size of the connection pool
+     * @return this
+     */
+    public H2Options setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+        return this;
+    }
+
+    /**
+     * @return true if an existing PageStore file is converted when the MVStore engine is used
+     */
+    public boolean isMigratePageStore() {
+        return migratePageStore;
+    }
+
+    /**
+     * @param migratePageStore true to convert an existing PageStore file when the MVStore engine is used
+     * @return this
+     */
+    public H2Options setMigratePageStore(boolean migratePageStore) {
+        this.migratePageStore = migratePageStore;
+        return this;
+    }
+}
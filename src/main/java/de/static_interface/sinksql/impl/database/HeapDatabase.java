@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.BinaryValue;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.DatabaseConnectionInfo;
+import de.static_interface.sinksql.ProjectionMapper;
+import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps all rows as Java objects in the heap and evaluates {@link Query}s directly on them, without JDBC or SQL<br/>
+ * Meant for small and hot tables: lookups by primary or unique key are hash map reads, {@link de.static_interface.sinksql.annotation.Index}ed
+ * columns are kept sorted for range queries. Every table is guarded by its own read-write lock.<br/>
+ * Raw SQL is not supported, so tables have to use the {@link Query} API only. Foreign keys are not enforced and string
+ * comparisons are case-insensitive, like with the default MySQL collation. Nothing is persisted.
+ */
+public class HeapDatabase extends Database {
+
+    private final Map<String, HeapStore<?>> stores = new ConcurrentHashMap<>();
+
+    /**
+     * @param prefix the prefix for tables
+     */
+    public HeapDatabase(final String prefix) {
+        super(new DatabaseConnectionInfo() {
+            @Override
+            public String getAddress() {
+                return null;
+            }
+
+            @Override
+            public int getPort() {
+                return 0;
+            }
+
+            @Override
+            public String getUsername() {
+                return null;
+            }
+
+            @Override
+            public String getPassword() {
+                return null;
+            }
+
+            @Override
+            public String getTablePrefix() {
+                return prefix;
+            }
+
+            @Override
+            public String getDatabaseName() {
+                return null;
+            }
+        });
+    }
+
+    @Override
+    protected void setupConfig() {
+        // nothing to configure
+    }
+
+    @Override
+    public synchronized void connect() throws SQLException {
+        setConnected(true);
+    }
+
+    /**
+     * Rows are kept after closing, use {@link #clear()} to discard them
+     */
+    @Override
+    public synchronized void close() throws SQLException {
+        setConnected(false);
+    }
+
+    /**
+     * Discards all tables and their rows
+     */
+    public void clear() {
+        stores.clear();
+    }
+
+    @Override
+    public String toDatabaseType(Field f) {
+        throw new UnsupportedOperationException("The heap database has no SQL types");
+    }
+
+    @Override
+    public String parseQuery(Query tQuery) {
+        throw new UnsupportedOperationException("The heap database doesn't use SQL");
+    }
+
+    @Override
+    public String stringify(String s) {
+        throw new UnsupportedOperationException("The heap database doesn't use SQL");
+    }
+
+    @Override
+    public <T extends Row> void createTable(AbstractTable<T> abstractTable) {
+        stores.computeIfAbsent(abstractTable.getName(), name -> new HeapStore<>(abstractTable));
+    }
+
+    @Override
+    public <T extends Row> T insert(AbstractTable<T> abstractTable, T row) {
+        return getStore(abstractTable).insert(row);
+    }
+
+    @Override
+    public <T extends Row> T upsert(AbstractTable<T> abstractTable, T row) {
+        return getStore(abstractTable).upsert(row);
+    }
+
+    @Override
+    public <T extends Row> List<T> insertAll(AbstractTable<T> abstractTable, List<T> rows) {
+        return getStore(abstractTable).insertAll(rows);
+    }
+
+    @Override
+    public <T extends Row> T[] getResults(Query<T> query, Object... bindings) {
+        HeapQuery<T> heapQuery = compile(query, bindings);
+        if (!heapQuery.isSelect()) {
+            throw new IllegalStateException("Only select queries have results, use execute() instead");
+        }
+        return getStore(query.getMasterQuery().getTable()).select(heapQuery);
+    }
+
+    @Override
+    public <T extends Row> int execute(Query<T> query, Object... bindings) {
+        HeapQuery<T> heapQuery = compile(query, bindings);
+        HeapStore<T> store = getStore(query.getMasterQuery().getTable());
+        if (heapQuery.isUpdate()) {
+            return store.update(heapQuery);
+        }
+        if (heapQuery.isDelete()) {
+            return store.delete(heapQuery);
+        }
+        throw new IllegalStateException("Select queries can't be executed, use getResults() instead");
+    }
+
+    @Override
+    public <T extends Row> int[] getIntColumn(Query<T> query, String column, Object... bindings) {
+        List<Object> values = getColumn(query, column, bindings);
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = HeapStore.convert(int.class, values.get(i));
+            result[i] = value == null ? 0 : (Integer) value;
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Row> long[] getLongColumn(Query<T> query, String column, Object... bindings) {
+        List<Object> values = getColumn(query, column, bindings);
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = HeapStore.convert(long.class, values.get(i));
+            result[i] = value == null ? 0 : (Long) value;
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Row> double[] getDoubleColumn(Query<T> query, String column, Object... bindings) {
+        List<Object> values = getColumn(query, column, bindings);
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = HeapStore.convert(double.class, values.get(i));
+            result[i] = value == null ? 0 : (Double) value;
+        }
+        return result;
+    }
+
+    @Override
+    public <T extends Row> void readBinary(Query<T> query, String column, Consumer<InputStream> consumer, Object... bindings) {
+        for (Object value : getColumn(query, column, bindings)) {
+            if (value == null) {
+                consumer.accept(null);
+            } else if (value instanceof byte[]) {
+                consumer.accept(new ByteArrayInputStream((byte[]) value));
+            } else if (value instanceof BinaryValue) {
+                consumer.accept(((BinaryValue) value).getInputStream());
+            } else {
+                throw new IllegalArgumentException(column + " is not a binary column");
+            }
+        }
+    }
+
+    @Override
+    public <T extends Row, P> List<P> getProjections(Query<T> query, Class<P> projectionType, Object... bindings) {
+        HeapQuery<T> heapQuery = compile(query, bindings);
+        if (!heapQuery.isSelect()) {
+            throw new IllegalStateException("Only select queries have results, use execute() instead");
+        }
+        List<ColumnMetadata> columns = heapQuery.getSelectedColumns();
+        List<String> names = new ArrayList<>(columns.size());
+        for (ColumnMetadata column : columns) {
+            names.add(column.getName());
+        }
+        List<Object[]> rows = getStore(query.getMasterQuery().getTable()).selectValues(heapQuery, columns);
+        return ProjectionMapper.of(projectionType).mapAll(names, rows, HeapStore::convert);
+    }
+
+    private <T extends Row> List<Object> getColumn(Query<T> query, String column, Object... bindings) {
+        HeapQuery<T> heapQuery = compile(query, bindings);
+        if (!heapQuery.isSelect()) {
+            throw new IllegalStateException("Only select queries have results, use execute() instead");
+        }
+        return getStore(query.getMasterQuery().getTable()).selectColumn(heapQuery, heapQuery.resolveColumn(column));
+    }
+
+    private <T extends Row> HeapQuery<T> compile(Query<T> query, Object... bindings) {
+        return new HeapQuery<>(getStore(query.getMasterQuery().getTable()), query, bindings);
+    }
+
+    private <T extends Row> HeapStore<T> getStore(AbstractTable<T> table) {
+        HeapStore<T> store = (HeapStore<T>) stores.get(table.getName());
+        if (store == null) {
+            throw new IllegalStateException("Table " + table.getName() + " doesn't exist");
+        }
+        return store;
+    }
+}
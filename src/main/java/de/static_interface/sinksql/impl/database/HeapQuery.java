@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.query.MasterQuery;
+import de.static_interface.sinksql.query.Order;
+import de.static_interface.sinksql.query.Query;
+import de.static_interface.sinksql.query.condition.EqualsCondition;
+import de.static_interface.sinksql.query.condition.GreaterThanCondition;
+import de.static_interface.sinksql.query.condition.GreaterThanEqualsCondition;
+import de.static_interface.sinksql.query.condition.LikeCondition;
+import de.static_interface.sinksql.query.condition.MatchCondition;
+import de.static_interface.sinksql.query.condition.WhereCondition;
+import de.static_interface.sinksql.query.expression.ArithmeticExpression;
+import de.static_interface.sinksql.query.expression.SetExpression;
+import de.static_interface.sinksql.query.impl.AndQuery;
+import de.static_interface.sinksql.query.impl.DeleteQuery;
+import de.static_interface.sinksql.query.impl.LimitQuery;
+import de.static_interface.sinksql.query.impl.OrQuery;
+import de.static_interface.sinksql.query.impl.OrderByQuery;
+import de.static_interface.sinksql.query.impl.SelectQuery;
+import de.static_interface.sinksql.query.impl.SetQuery;
+import de.static_interface.sinksql.query.impl.UpdateQuery;
+import de.static_interface.sinksql.query.impl.WhereQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Query} chain compiled for a {@link HeapStore}<br/>
+ * Bindings are resolved in the order their placeholders would have in the SQL statement: <code>SET</code> values first,
+ * then the <code>WHERE</code> conditions. <code>AND</code> binds tighter than <code>OR</code>, like in SQL.
+ * @param <T> the row type
+ */
+final class HeapQuery<T extends Row> {
+
+    private enum Token {
+        AND,
+        OR,
+        OPEN,
+        CLOSE
+    }
+
+    private enum Kind {
+        EQUALS,
+        RANGE,
+        LIKE,
+        MATCH
+    }
+
+    private final HeapStore<T> store;
+    private final MasterQuery<T> master;
+    private final Object[] bindings;
+    private int bindingIndex;
+    private List<ColumnMetadata> selectedColumns;
+    private final List<Assignment> assignments = new ArrayList<>();
+    private final List<Term> terms = new ArrayList<>();
+    private final List<Object> tokens = new ArrayList<>();
+    private boolean disjunctive;
+    private int position;
+    private final Predicate<T> predicate;
+    private final List<ColumnMetadata> orderColumns = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private int offset;
+    private int rowCount = -1;
+
+    HeapQuery(HeapStore<T> store, Query<T> query, @Nullable Object[] bindings) {
+        this.store = store;
+        this.master = query.getMasterQuery();
+        this.bindings = bindings == null ? new Object[0] : bindings;
+        this.selectedColumns = store.getMetadata().getColumns();
+
+        for (Query<T> tQuery = master; tQuery != null; tQuery = tQuery.getChild()) {
+            if (tQuery instanceof SelectQuery) {
+                selectedColumns = resolveColumns(tQuery, ((SelectQuery<T>) tQuery).getColumns());
+            } else if (tQuery instanceof UpdateQuery || tQuery instanceof DeleteQuery) {
+                continue;
+            } else if (tQuery instanceof SetQuery) {
+                if (!(master instanceof UpdateQuery)) {
+                    throw new IllegalStateException("SET is only allowed in update queries!");
+                }
+                SetQuery<T> setQuery = (SetQuery<T>) tQuery;
+                assignments.add(new Assignment(resolveColumn(tQuery, setQuery.getColumn()), setQuery.getValue()));
+            } else if (tQuery instanceof WhereQuery) {
+                WhereQuery<T> whereQuery = (WhereQuery<T>) tQuery;
+                if (tQuery instanceof AndQuery) {
+                    tokens.add(Token.AND);
+                } else if (tQuery instanceof OrQuery) {
+                    tokens.add(Token.OR);
+                    disjunctive = true;
+                }
+                if (whereQuery.getParanthesisState() == 1) {
+                    tokens.add(Token.OPEN);
+                }
+                Term term = new Term(resolveColumn(tQuery, whereQuery.getColumn()), whereQuery.getCondition());
+                terms.add(term);
+                tokens.add(term);
+                if (whereQuery.getParanthesisState() == 2) {
+                    tokens.add(Token.CLOSE);
+                }
+            } else if (tQuery instanceof OrderByQuery) {
+                OrderByQuery<T> orderByQuery = (OrderByQuery<T>) tQuery;
+                orderColumns.add(resolveColumn(tQuery, orderByQuery.getColumn()));
+                orders.add(orderByQuery.getOrder());
+            } else if (tQuery instanceof LimitQuery) {
+                offset = ((LimitQuery<T>) tQuery).getOffset();
+                rowCount = ((LimitQuery<T>) tQuery).getRowCount();
+            } else {
+                throw new IllegalStateException("Query not supported: " + tQuery.getClass().getName());
+            }
+        }
+
+        if (tokens.isEmpty()) {
+            predicate = null;
+        } else {
+            predicate = parseOr();
+            if (position != tokens.size()) {
+                throw new IllegalStateException("Unbalanced parenthesis in WHERE clause");
+            }
+        }
+    }
+
+    boolean isSelect() {
+        return master instanceof SelectQuery;
+    }
+
+    boolean isUpdate() {
+        return master instanceof UpdateQuery;
+    }
+
+    boolean isDelete() {
+        return master instanceof DeleteQuery;
+    }
+
+    List<ColumnMetadata> getSelectedColumns() {
+        return selectedColumns;
+    }
+
+    /**
+     * @return the conditions if all of them have to match, null if the <code>WHERE</code> clause contains <code>OR</code>
+     */
+    @Nullable
+    List<Term> getConjunctiveTerms() {
+        return disjunctive ? null : terms;
+    }
+
+    /**
+     * Filters, orders and limits the given rows
+     * @param rows the candidate rows
+     * @return the resulting rows
+     */
+    List<T> apply(Collection<T> rows) {
+        List<T> result = new ArrayList<>();
+        for (T row : rows) {
+            if (predicate == null || predicate.test(row)) {
+                result.add(row);
+            }
+        }
+
+        if (!orderColumns.isEmpty()) {
+            result.sort(this::compareRows);
+        }
+
+        if (offset > 0 || rowCount >= 0) {
+            int from = Math.min(offset, result.size());
+            int to = rowCount < 0 ? result.size() : (int) Math.min((long) from + rowCount, result.size());
+            result = new ArrayList<>(result.subList(from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Applies the <code>SET</code> values to the given row
+     */
+    void assign(T row) {
+        for (Assignment assignment : assignments) {
+            assignment.apply(row);
+        }
+    }
+
+    ColumnMetadata resolveColumn(String name) {
+        return resolveColumn(master, name);
+    }
+
+    private int compareRows(T a, T b) {
+        for (int i = 0; i < orderColumns.size(); i++) {
+            Object x = orderColumns.get(i).get(a);
+            Object y = orderColumns.get(i).get(b);
+            int result;
+            if (x == null || y == null) {
+                result = x == null ? (y == null ? 0 : -1) : 1; // NULLs come first in ascending order
+            } else {
+                result = HeapStore.compare(x, y);
+            }
+            if (orders.get(i) == Order.DESC) {
+                result = -result;
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private Predicate<T> parseOr() {
+        Predicate<T> left = parseAnd();
+        while (peek() == Token.OR) {
+            position++;
+            left = left.or(parseAnd());
+        }
+        return left;
+    }
+
+    private Predicate<T> parseAnd() {
+        Predicate<T> left = parsePrimary();
+        while (peek() == Token.AND) {
+            position++;
+            left = left.and(parsePrimary());
+        }
+        return left;
+    }
+
+    private Predicate<T> parsePrimary() {
+        Object token = peek();
+        position++;
+        if (token == Token.OPEN) {
+            Predicate<T> inner = parseOr();
+            if (peek() != Token.CLOSE) {
+                throw new IllegalStateException("Unbalanced parenthesis in WHERE clause");
+            }
+            position++;
+            return inner;
+        }
+        if (token instanceof HeapQuery.Term) {
+            return (Term) token;
+        }
+        throw new IllegalStateException("Unexpected " + token + " in WHERE clause");
+    }
+
+    @Nullable
+    private Object peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private List<ColumnMetadata> resolveColumns(Query<T> query, String[] columns) {
+        if (columns.length == 1 && columns[0].trim().equals("*")) {
+            return store.getMetadata().getColumns();
+        }
+        List<ColumnMetadata> result = new ArrayList<>();
+        for (String column : columns) {
+            if (query.isColumnVerificationDisabled() && findColumn(column) == null) {
+                continue;
+            }
+            result.add(resolveColumn(query, column));
+        }
+        return result;
+    }
+
+    private ColumnMetadata resolveColumn(Query<T> query, String name) {
+        ColumnMetadata column = findColumn(name);
+        if (column == null) {
+            throw new IllegalStateException(
+                    "Column \"" + name + "\"" + " not found in table \"" + store.getTable().getName() + "\"" + " in query " + query.getClass()
+                            .getSimpleName());
+        }
+        return column;
+    }
+
+    @Nullable
+    private ColumnMetadata findColumn(String name) {
+        name = name.replace("`", "").trim();
+        ColumnMetadata column = store.getMetadata().getColumn(name);
+        if (column != null) {
+            return column;
+        }
+        for (ColumnMetadata metadata : store.getMetadata().getColumns()) {
+            if (metadata.getName().equalsIgnoreCase(name)) {
+                return metadata;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves "?" to the next binding and "null" to null, like {@link de.static_interface.sinksql.AbstractTable#toSqlValue(Object)}
+     * @param unquote true if the value has been put into the SQL statement as is, so quoted strings are literals
+     */
+    @Nullable
+    private Object resolve(@Nullable Object value, boolean unquote) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+        String s = (String) value;
+        if (s.equals("?")) {
+            if (bindingIndex >= bindings.length) {
+                throw new IllegalArgumentException("Missing binding #" + (bindingIndex + 1));
+            }
+            return bindings[bindingIndex++];
+        }
+        if (s.equalsIgnoreCase("null")) {
+            return null;
+        }
+        if (unquote && s.length() >= 2) {
+            char quote = s.charAt(0);
+            if ((quote == '\'' || quote == '"') && s.charAt(s.length() - 1) == quote) {
+                return s.substring(1, s.length() - 1).replace("\\" + quote, String.valueOf(quote))
+                        .replace(String.valueOf(quote) + quote, String.valueOf(quote));
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Converts a condition value to the column type, so it can be compared and used as index key
+     */
+    @Nullable
+    private static Object toColumnValue(ColumnMetadata column, @Nullable Object value) {
+        try {
+            return HeapStore.convert(column.getType(), value);
+        } catch (IllegalArgumentException e) {
+            return value; // compared as is
+        }
+    }
+
+    private static Pattern likeToPattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        boolean escaped = false;
+        for (char c : pattern.toCharArray()) {
+            if (escaped) {
+                regex.append(Pattern.quote(String.valueOf(c)));
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+
+    private final class Assignment {
+
+        private final ColumnMetadata column;
+        private final ArithmeticExpression.Operator operator;
+        private final Object value;
+
+        private Assignment(ColumnMetadata column, Object rawValue) {
+            this.column = column;
+            if (rawValue instanceof SetExpression) {
+                if (!(rawValue instanceof ArithmeticExpression)) {
+                    throw new IllegalStateException("Expression not supported: " + rawValue.getClass().getName());
+                }
+                this.operator = ((ArithmeticExpression) rawValue).getOperator();
+                this.value = resolve(((ArithmeticExpression) rawValue).getValue(), false);
+            } else {
+                this.operator = null;
+                this.value = HeapStore.convert(column.getType(), resolve(rawValue, false));
+            }
+        }
+
+        private void apply(T row) {
+            Object newValue = operator == null ? value : HeapStore.convert(column.getType(), HeapStore.calculate(operator, column.get(row), value));
+            if (newValue == null && column.getType().isPrimitive()) {
+                throw new IllegalArgumentException("Column " + column.getName() + " can't be null");
+            }
+            column.set(row, newValue);
+        }
+    }
+
+    final class Term implements Predicate<T> {
+
+        private final ColumnMetadata column;
+        private final Kind kind;
+        private final boolean negated;
+        private Object value;
+        private boolean less;
+        private boolean orEqual;
+        private Pattern pattern;
+        private List<ColumnMetadata> matchColumns;
+        private final List<String> requiredWords = new ArrayList<>();
+        private final List<String> excludedWords = new ArrayList<>();
+        private final List<String> optionalWords = new ArrayList<>();
+
+        private Term(ColumnMetadata column, WhereCondition condition) {
+            this.column = column;
+            this.negated = condition.isNegated();
+            if (condition instanceof GreaterThanCondition) {
+                kind = Kind.RANGE;
+                value = toColumnValue(column, resolve(condition.getValue(), false));
+                less = ((GreaterThanCondition) condition).isInverted() != negated;
+                orEqual = (condition instanceof GreaterThanEqualsCondition) != negated;
+            } else if (condition instanceof EqualsCondition) {
+                kind = Kind.EQUALS;
+                value = toColumnValue(column, resolve(condition.getValue(), true));
+            } else if (condition instanceof LikeCondition) {
+                kind = Kind.LIKE;
+                pattern = likeToPattern(String.valueOf(resolve(((LikeCondition) condition).getPattern(), true)));
+            } else if (condition instanceof MatchCondition) {
+                kind = Kind.MATCH;
+                matchColumns = new ArrayList<>();
+                matchColumns.add(column);
+                for (String additionalColumn : ((MatchCondition) condition).getAdditionalColumns()) {
+                    matchColumns.add(resolveColumn(master, additionalColumn));
+                }
+                parseWords(String.valueOf(resolve(condition.getValue(), false)));
+            } else {
+                throw new IllegalStateException("Condition not supported: " + condition.getClass().getName());
+            }
+        }
+
+        private void parseWords(String search) {
+            for (String word : search.toLowerCase(Locale.ROOT).split("\\s+")) {
+                List<String> words = optionalWords;
+                if (word.startsWith("+")) {
+                    words = requiredWords;
+                } else if (word.startsWith("-")) {
+                    words = excludedWords;
+                }
+                word = word.replaceAll("[+\\-~<>()\"*]", "");
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+
+        ColumnMetadata getColumn() {
+            return column;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return true if the condition is a plain <code>=</code> comparison with a non-null value
+         */
+        boolean isEquality() {
+            return kind == Kind.EQUALS && !negated && value != null;
+        }
+
+        boolean isRange() {
+            return kind == Kind.RANGE && value != null;
+        }
+
+        boolean isLess() {
+            return less;
+        }
+
+        boolean isOrEqual() {
+            return orEqual;
+        }
+
+        @Override
+        public boolean test(T row) {
+            Object current = column.get(row);
+            switch (kind) {
+                case EQUALS:
+                    if (value == null) {
+                        return (current == null) != negated;
+                    }
+                    return current != null && (HeapStore.compare(current, value) == 0) != negated;
+                case RANGE:
+                    if (current == null || value == null) {
+                        return false;
+                    }
+                    int result = HeapStore.compare(current, value);
+                    return less ? result < 0 || orEqual && result == 0 : result > 0 || orEqual && result == 0;
+                case LIKE:
+                    return current != null && pattern.matcher(String.valueOf(HeapStore.normalize(current))).matches() != negated;
+                case MATCH:
+                    return matches(row) != negated;
+                default:
+                    throw new IllegalStateException("Condition not supported: " + kind);
+            }
+        }
+
+        private boolean matches(T row) {
+            StringBuilder text = new StringBuilder();
+            for (ColumnMetadata matchColumn : matchColumns) {
+                Object columnValue = matchColumn.get(row);
+                if (columnValue != null) {
+                    text.append(String.valueOf(columnValue).toLowerCase(Locale.ROOT)).append(' ');
+                }
+            }
+            for (String word : requiredWords) {
+                if (text.indexOf(word) < 0) {
+                    return false;
+                }
+            }
+            for (String word : excludedWords) {
+                if (text.indexOf(word) >= 0) {
+                    return false;
+                }
+            }
+            if (optionalWords.isEmpty()) {
+                return !requiredWords.isEmpty();
+            }
+            for (String word : optionalWords) {
+                if (text.indexOf(word) >= 0) {
+                    return true;
+                }
+            }
+            return !requiredWords.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,709 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.CodedEnum;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.TableMetadata;
+import de.static_interface.sinksql.annotation.UniqueKey;
+import de.static_interface.sinksql.key.KeyGenerator;
+import de.static_interface.sinksql.query.expression.ArithmeticExpression;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.Nullable;
+
+/**
+ * The rows of a single table of a {@link HeapDatabase}<br/>
+ * Each store has its own read-write lock, so queries on different tables never contend. Rows within a table aren't striped
+ * over several locks: writes to the same table are serialized, reads run concurrently. Primary keys and unique keys
+ * are kept in hash maps and the first column of each {@link de.static_interface.sinksql.annotation.Index} in a sorted map.
+ * Rows handed out are always copies.
+ * @param <T> the row type
+ */
+final class HeapStore<T extends Row> {
+
+    private final AbstractTable<T> table;
+    private final TableMetadata<T> metadata;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<T> rows = new ArrayList<>();
+    private final List<UniqueIndex> uniqueIndexes = new ArrayList<>();
+    private final Map<ColumnMetadata, TreeMap<Object, List<T>>> sortedIndexes = new HashMap<>();
+    private long autoIncrement;
+
+    HeapStore(AbstractTable<T> table) {
+        this.table = table;
+        this.metadata = table.getMetadata();
+        loadUniqueIndexes();
+        for (IndexMetadata index : metadata.getIndexes()) {
+            ColumnMetadata column = metadata.getColumn(index.getColumns().get(0));
+            if (column != null && !sortedIndexes.containsKey(column)) {
+                sortedIndexes.put(column, new TreeMap<>(HeapStore::compare));
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void loadUniqueIndexes() {
+        if (!metadata.getPrimaryKeys().isEmpty()) {
+            uniqueIndexes.add(new UniqueIndex(metadata.getPrimaryKeys()));
+        }
+
+        Map<Integer, List<ColumnMetadata>> combinedUniqueKeys = new LinkedHashMap<>();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if (column.getColumn().uniqueKey()) {
+                uniqueIndexes.add(new UniqueIndex(Collections.singletonList(column)));
+            }
+
+            UniqueKey uniqueKey = column.getUniqueKey();
+            if (uniqueKey == null) {
+                continue;
+            }
+            if (uniqueKey.combinationId() == Integer.MAX_VALUE) {
+                uniqueIndexes.add(new UniqueIndex(Collections.singletonList(column)));
+                continue;
+            }
+            List<ColumnMetadata> columns = combinedUniqueKeys.get(uniqueKey.combinationId());
+            if (columns == null) {
+                columns = new ArrayList<>();
+                combinedUniqueKeys.put(uniqueKey.combinationId(), columns);
+            }
+            columns.add(column);
+        }
+
+        for (List<ColumnMetadata> columns : combinedUniqueKeys.values()) {
+            uniqueIndexes.add(new UniqueIndex(columns));
+        }
+    }
+
+    AbstractTable<T> getTable() {
+        return table;
+    }
+
+    TableMetadata<T> getMetadata() {
+        return metadata;
+    }
+
+    T insert(T row) {
+        lock.writeLock().lock();
+        try {
+            return insertRow(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<T> insertAll(List<T> rows) {
+        lock.writeLock().lock();
+        try {
+            for (T row : rows) {
+                insertRow(row);
+            }
+            return rows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    T upsert(T row) {
+        lock.writeLock().lock();
+        try {
+            T existing = null;
+            for (UniqueIndex index : uniqueIndexes) {
+                List<Object> key = index.getKey(row);
+                existing = key == null ? null : index.rows.get(key);
+                if (existing != null) {
+                    break;
+                }
+            }
+            if (existing == null) {
+                return insertRow(row);
+            }
+
+            Object[] values = getValues(existing);
+            unindex(existing);
+            try {
+                for (ColumnMetadata column : metadata.getColumns()) {
+                    if (!column.isPrimaryKey()) {
+                        column.set(existing, column.get(row));
+                    }
+                }
+                checkUnique(existing);
+            } catch (RuntimeException e) {
+                setValues(existing, values);
+                throw e;
+            } finally {
+                index(existing);
+            }
+
+            for (ColumnMetadata column : metadata.getAutoIncrementColumns()) {
+                column.set(row, column.get(existing));
+            }
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private T insertRow(T row) {
+        T stored = copy(row, metadata.getColumns());
+        for (ColumnMetadata column : metadata.getAutoIncrementColumns()) {
+            Object value = column.get(stored);
+            if (value != null && (!(value instanceof Number) || ((Number) value).longValue() != 0)) {
+                if (value instanceof Number) {
+                    autoIncrement = Math.max(autoIncrement, ((Number) value).longValue());
+                }
+                continue;
+            }
+
+            KeyGenerator keyGenerator = table.getKeyGenerator();
+            long key = keyGenerator != null ? keyGenerator.nextKey() : autoIncrement + 1;
+            autoIncrement = Math.max(autoIncrement, key);
+            Object converted = convert(column.getType(), key);
+            column.set(stored, converted);
+            column.set(row, converted);
+        }
+
+        checkUnique(stored);
+        rows.add(stored);
+        index(stored);
+        return row;
+    }
+
+    T[] select(HeapQuery<T> query) {
+        lock.readLock().lock();
+        try {
+            List<T> result = query.apply(candidates(query));
+            List<ColumnMetadata> columns = query.getSelectedColumns();
+            T[] array = (T[]) Array.newInstance(metadata.getRowClass(), result.size());
+            for (int i = 0; i < array.length; i++) {
+                array[i] = copy(result.get(i), columns);
+            }
+            return array;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Object> selectColumn(HeapQuery<T> query, ColumnMetadata column) {
+        lock.readLock().lock();
+        try {
+            List<T> result = query.apply(candidates(query));
+            List<Object> values = new ArrayList<>(result.size());
+            for (T row : result) {
+                values.add(column.get(row));
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Object[]> selectValues(HeapQuery<T> query, List<ColumnMetadata> columns) {
+        lock.readLock().lock();
+        try {
+            List<T> result = query.apply(candidates(query));
+            List<Object[]> values = new ArrayList<>(result.size());
+            for (T row : result) {
+                Object[] rowValues = new Object[columns.size()];
+                for (int i = 0; i < rowValues.length; i++) {
+                    rowValues[i] = columns.get(i).get(row);
+                }
+                values.add(rowValues);
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int update(HeapQuery<T> query) {
+        lock.writeLock().lock();
+        try {
+            List<T> matched = query.apply(candidates(query));
+            List<Object[]> previousValues = new ArrayList<>(matched.size());
+            for (int i = 0; i < matched.size(); i++) {
+                T row = matched.get(i);
+                Object[] values = getValues(row);
+                unindex(row);
+                try {
+                    query.assign(row);
+                    checkUnique(row);
+                } catch (RuntimeException e) {
+                    setValues(row, values);
+                    index(row);
+                    for (int j = i - 1; j >= 0; j--) {
+                        unindex(matched.get(j));
+                        setValues(matched.get(j), previousValues.get(j));
+                        index(matched.get(j));
+                    }
+                    throw e;
+                }
+                index(row);
+                previousValues.add(values);
+            }
+            return matched.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int delete(HeapQuery<T> query) {
+        lock.writeLock().lock();
+        try {
+            List<T> matched = query.apply(candidates(query));
+            if (matched.isEmpty()) {
+                return 0;
+            }
+            Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (T row : matched) {
+                unindex(row);
+                removed.add(row);
+            }
+            rows.removeIf(removed::contains);
+            return matched.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Narrows the rows down with the indexes if the <code>WHERE</code> clause has no <code>OR</code>
+     */
+    private Collection<T> candidates(HeapQuery<T> query) {
+        List<HeapQuery<T>.Term> terms = query.getConjunctiveTerms();
+        if (terms == null || terms.isEmpty()) {
+            return rows;
+        }
+
+        for (UniqueIndex index : uniqueIndexes) {
+            List<Object> key = new ArrayList<>(index.columns.size());
+            for (ColumnMetadata column : index.columns) {
+                HeapQuery<T>.Term term = findEquality(terms, column);
+                if (term == null) {
+                    break;
+                }
+                key.add(toKey(term.getValue()));
+            }
+            if (key.size() == index.columns.size()) {
+                T row = index.rows.get(key);
+                return row == null ? Collections.emptyList() : Collections.singletonList(row);
+            }
+        }
+
+        for (HeapQuery<T>.Term term : terms) {
+            TreeMap<Object, List<T>> index = sortedIndexes.get(term.getColumn());
+            if (index == null) {
+                continue;
+            }
+            if (term.isEquality()) {
+                List<T> result = index.get(toKey(term.getValue()));
+                return result == null ? Collections.emptyList() : result;
+            }
+            if (term.isRange()) {
+                Object key = toKey(term.getValue());
+                NavigableMap<Object, List<T>> range = term.isLess() ? index.headMap(key, term.isOrEqual()) : index.tailMap(key, term.isOrEqual());
+                List<T> result = new ArrayList<>();
+                for (List<T> values : range.values()) {
+                    result.addAll(values);
+                }
+                return result;
+            }
+        }
+        return rows;
+    }
+
+    @Nullable
+    private HeapQuery<T>.Term findEquality(List<HeapQuery<T>.Term> terms, ColumnMetadata column) {
+        for (HeapQuery<T>.Term term : terms) {
+            if (term.getColumn() == column && term.isEquality()) {
+                return term;
+            }
+        }
+        return null;
+    }
+
+    private void checkUnique(T row) {
+        for (UniqueIndex index : uniqueIndexes) {
+            List<Object> key = index.getKey(row);
+            if (key == null) {
+                continue;
+            }
+            T existing = index.rows.get(key);
+            if (existing != null && existing != row) {
+                List<String> names = new ArrayList<>();
+                for (ColumnMetadata column : index.columns) {
+                    names.add(column.getName());
+                }
+                throw new IllegalStateException("Duplicate entry " + key + " for key " + names + " in table " + table.getName());
+            }
+        }
+    }
+
+    private void index(T row) {
+        for (UniqueIndex index : uniqueIndexes) {
+            List<Object> key = index.getKey(row);
+            if (key != null) {
+                index.rows.put(key, row);
+            }
+        }
+
+        for (Map.Entry<ColumnMetadata, TreeMap<Object, List<T>>> entry : sortedIndexes.entrySet()) {
+            Object value = entry.getKey().get(row);
+            if (value == null) {
+                continue;
+            }
+            entry.getValue().computeIfAbsent(toKey(value), k -> new ArrayList<>(1)).add(row);
+        }
+    }
+
+    private void unindex(T row) {
+        for (UniqueIndex index : uniqueIndexes) {
+            List<Object> key = index.getKey(row);
+            if (key != null && index.rows.get(key) == row) {
+                index.rows.remove(key);
+            }
+        }
+
+        for (Map.Entry<ColumnMetadata, TreeMap<Object, List<T>>> entry : sortedIndexes.entrySet()) {
+            Object value = entry.getKey().get(row);
+            if (value == null) {
+                continue;
+            }
+            Object key = toKey(value);
+            List<T> indexed = entry.getValue().get(key);
+            if (indexed == null) {
+                continue;
+            }
+            for (int i = 0; i < indexed.size(); i++) {
+                if (indexed.get(i) == row) {
+                    indexed.remove(i);
+                    break;
+                }
+            }
+            if (indexed.isEmpty()) {
+                entry.getValue().remove(key);
+            }
+        }
+    }
+
+    private T copy(T row, List<ColumnMetadata> columns) {
+        T copy = metadata.newInstance();
+        for (ColumnMetadata column : columns) {
+            column.set(copy, column.get(row));
+        }
+        return copy;
+    }
+
+    private Object[] getValues(T row) {
+        List<ColumnMetadata> columns = metadata.getColumns();
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns.get(i).get(row);
+        }
+        return values;
+    }
+
+    private void setValues(T row, Object[] values) {
+        List<ColumnMetadata> columns = metadata.getColumns();
+        for (int i = 0; i < values.length; i++) {
+            columns.get(i).set(row, values[i]);
+        }
+    }
+
+    /**
+     * Converts a value to the representation used for comparisons: enums become their codes, booleans 0 or 1,
+     * dates their epoch millis and integral numbers longs
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Enum) {
+            return (long) (value instanceof CodedEnum ? ((CodedEnum) value).getCode() : ((Enum) value).ordinal());
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        }
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float || value instanceof Double) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < (1L << 53)) {
+                return (long) d;
+            }
+            return d;
+        }
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).bitLength() < 64 ? (Object) ((BigInteger) value).longValue() : new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) value).stripTrailingZeros();
+            if (decimal.scale() <= 0 && decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+                && decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0) {
+                return decimal.longValue();
+            }
+            return decimal;
+        }
+        if (value instanceof Character || value instanceof UUID) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return value;
+    }
+
+    /**
+     * Compares two non-null values like MySQL would: numbers by value and strings case-insensitively
+     */
+    static int compare(Object a, Object b) {
+        a = normalize(a);
+        b = normalize(b);
+        if (a instanceof Long && b instanceof Long) {
+            return Long.compare((Long) a, (Long) b);
+        }
+        if (a instanceof Number && b instanceof Number) {
+            if (a instanceof BigDecimal || b instanceof BigDecimal) {
+                return toBigDecimal((Number) a).compareTo(toBigDecimal((Number) b));
+            }
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareToIgnoreCase((String) b);
+        }
+        if (a instanceof byte[] && b instanceof byte[]) {
+            return compare(ByteBuffer.wrap((byte[]) a), ByteBuffer.wrap((byte[]) b));
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return String.valueOf(a).compareToIgnoreCase(String.valueOf(b));
+    }
+
+    /**
+     * @return the value as hash key, consistent with {@link #compare(Object, Object)}
+     */
+    static Object toKey(Object value) {
+        value = normalize(value);
+        if (value instanceof String) {
+            return ((String) value).toLowerCase(Locale.ROOT);
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).doubleValue();
+        }
+        if (value instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        return value;
+    }
+
+    /**
+     * Converts a query value to the type of a field
+     * @throws IllegalArgumentException if the value can't be converted
+     */
+    @Nullable
+    static Object convert(Class<?> type, @Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> wrapper = toWrapper(type);
+        if (wrapper.isInstance(value)) {
+            return value;
+        }
+        if (wrapper == String.class) {
+            return value instanceof Enum ? ((Enum) value).name() : value.toString();
+        }
+        if (wrapper == Boolean.class) {
+            if (value instanceof String && (value.equals("true") || value.equals("false"))) {
+                return Boolean.valueOf((String) value);
+            }
+            return toNumber(value).longValue() != 0;
+        }
+        if (wrapper == Character.class) {
+            String s = value.toString();
+            if (s.length() != 1) {
+                throw new IllegalArgumentException("Can't convert \"" + s + "\" to char");
+            }
+            return s.charAt(0);
+        }
+        if (Number.class.isAssignableFrom(wrapper)) {
+            Number number = toNumber(value);
+            if (wrapper == Integer.class) {
+                return number.intValue();
+            }
+            if (wrapper == Long.class) {
+                return number.longValue();
+            }
+            if (wrapper == Double.class) {
+                return number.doubleValue();
+            }
+            if (wrapper == Float.class) {
+                return number.floatValue();
+            }
+            if (wrapper == Short.class) {
+                return number.shortValue();
+            }
+            if (wrapper == Byte.class) {
+                return number.byteValue();
+            }
+            if (wrapper == BigDecimal.class) {
+                return toBigDecimal(number);
+            }
+            if (wrapper == BigInteger.class) {
+                return toBigDecimal(number).toBigInteger();
+            }
+        }
+        if (Enum.class.isAssignableFrom(wrapper)) {
+            Class<?> enumClass = wrapper.isEnum() ? wrapper : wrapper.getSuperclass();
+            for (Object constant : enumClass.getEnumConstants()) {
+                if (value instanceof String ? ((Enum) constant).name().equals(value) : compare(constant, value) == 0) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("Unknown constant " + value + " for enum " + enumClass.getName());
+        }
+        if (wrapper == UUID.class) {
+            return UUID.fromString(value.toString());
+        }
+        throw new IllegalArgumentException("Can't convert " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    @Nullable
+    static Object calculate(ArithmeticExpression.Operator operator, @Nullable Object current, @Nullable Object operand) {
+        if (current == null || operand == null) {
+            return null; // like NULL + 1 in SQL
+        }
+        Number a = toNumber(current);
+        Number b = toNumber(operand);
+        if (a instanceof Long && b instanceof Long) {
+            switch (operator) {
+                case ADD:
+                    return Math.addExact((Long) a, (Long) b);
+                case SUBTRACT:
+                    return Math.subtractExact((Long) a, (Long) b);
+                case MULTIPLY:
+                    return Math.multiplyExact((Long) a, (Long) b);
+            }
+        }
+        switch (operator) {
+            case ADD:
+                return toBigDecimal(a).add(toBigDecimal(b));
+            case SUBTRACT:
+                return toBigDecimal(a).subtract(toBigDecimal(b));
+            case MULTIPLY:
+                return toBigDecimal(a).multiply(toBigDecimal(b));
+        }
+        throw new IllegalStateException("Operator not supported: " + operator);
+    }
+
+    private static Number toNumber(Object value) {
+        Object normalized = normalize(value);
+        if (normalized instanceof Number) {
+            return (Number) normalized;
+        }
+        try {
+            return (Number) normalize(new BigDecimal(normalized.toString().trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value, e);
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof Long) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    private static Class<?> toWrapper(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == float.class) {
+            return Float.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+
+    private final class UniqueIndex {
+
+        private final List<ColumnMetadata> columns;
+        private final Map<List<Object>, T> rows = new HashMap<>();
+
+        private UniqueIndex(List<ColumnMetadata> columns) {
+            this.columns = columns;
+        }
+
+        /**
+         * @return the key or null if any column is null, which never conflicts
+         */
+        @Nullable
+        private List<Object> getKey(T row) {
+            List<Object> key = new ArrayList<>(columns.size());
+            for (ColumnMetadata column : columns) {
+                Object value = column.get(row);
+                if (value == null) {
+                    return null;
+                }
+                key.add(toKey(value));
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * H2 database which is kept in memory only, for caches and tests<br/>
+ * The database lives as long as the JVM, so {@link #close()} and reconnects keep the data. Use {@link #shutdown()} to
+ * discard it. Databases with the same name share their data within a JVM.
+ */
+public class MemoryH2Database extends H2Database {
+
+    private final String name;
+
+    /**
+     * @param name the name of the in-memory database
+     * @param prefix the prefix for tables
+     */
+    public MemoryH2Database(String name, String prefix) {
+        this(name, prefix, new H2Options());
+    }
+
+    /**
+     * @param name the name of the in-memory database
+     * @param prefix the prefix for tables
+     * @param options the connection settings, storage settings are ignored
+     */
+    public MemoryH2Database(String name, String prefix, H2Options options) {
+        super(null, prefix, options);
+        this.name = name;
+    }
+
+    @Override
+    protected String getJdbcUrl() {
+        String url = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=MySQL;IGNORECASE=TRUE";
+        if (getOptions().isMultiThreaded()) {
+            url += ";MULTI_THREADED=TRUE";
+        }
+        return url;
+    }
+
+    @Override
+    protected void migratePageStore() {
+        // nothing stored on disk
+    }
+
+    /**
+     * Discards all data of the database and closes it
+     * @throws SQLException if the database couldn't be closed
+     */
+    public void shutdown() throws SQLException {
+        if (isConnected()) {
+            try (Statement statement = getConnection().createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+        close();
+    }
+}
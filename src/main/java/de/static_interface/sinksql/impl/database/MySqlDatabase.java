@@ -61,7 +61,7 @@ public class MySqlDatabase extends SqlDatabase {
     }
 
     @Override
-    public void connect() throws SQLException {
+    public synchronized void connect() throws SQLException {
         setupConfig();
         try {
             connection = dataSource.getConnection();
@@ -69,10 +69,12 @@ public class MySqlDatabase extends SqlDatabase {
             dataSource.close();
             throw e;
         }
+        setConnected(true);
     }
 
     @Override
-    public void close() throws SQLException {
+    public synchronized void close() throws SQLException {
+        setConnected(false);
         if (connection != null) {
             connection.close();
         }
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.BinaryValue;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.DatabaseConnectionInfo;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.converter.NativeUuidConverter;
+import de.static_interface.sinksql.exception.InvalidSqlColumnException;
+import de.static_interface.sinksql.query.condition.MatchCondition;
+import de.static_interface.sinksql.query.impl.WhereQuery;
+import de.static_interface.sinksql.util.ReflectionUtil;
+import de.static_interface.sinksql.util.StringUtil;
+import org.apache.commons.lang3.Validate;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * PostgreSQL database implementation<br/>
+ * Auto increment columns become identity columns, booleans, UUIDs and binary values use the native
+ * <code>BOOLEAN</code>, <code>UUID</code> and <code>BYTEA</code> types. <code>UNSIGNED</code> is enforced with a check
+ * constraint and <code>ZEROFILL</code> is ignored. Full-text indexes are GIN indexes on the <code>simple</code>
+ * text search configuration.<br/>
+ * Unset auto increment values are left out of inserts, so the identity default applies.
+ * {@link #insertBatch(AbstractTable, List)} streams the rows with <code>COPY ... FROM STDIN</code> if the PostgreSQL
+ * driver is used and all columns are plain values, otherwise it falls back to batches. {@link #insertAll(AbstractTable, List)}
+ * uses batches which return the generated keys if they are needed.
+ */
+public class PostgreSqlDatabase extends SqlDatabase {
+
+    private static final int COPY_CHUNK_SIZE = 10000;
+
+    static {
+        AbstractTable.registerTypeConverter(PostgreSqlDatabase.class, UUID.class, new NativeUuidConverter());
+    }
+
+    private final String jdbcUrl;
+
+    /**
+     * @param info the connection info
+     */
+    public PostgreSqlDatabase(DatabaseConnectionInfo info) {
+        this(null, info);
+    }
+
+    /**
+     * Connects to the given JDBC URL instead of the address of the connection info, e.g.
+     * <code>jdbc:h2:mem:test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE</code> to test the dialect without a PostgreSQL server
+     * @param jdbcUrl the JDBC URL or null to connect to the address of the connection info
+     * @param info the connection info, used for the table prefix and the credentials
+     */
+    public PostgreSqlDatabase(@Nullable String jdbcUrl, DatabaseConnectionInfo info) {
+        super(info, '"');
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    @Override
+    protected void setupConfig() {
+        HikariConfig hConfig = new HikariConfig();
+        hConfig.setMaximumPoolSize(10);
+        if (jdbcUrl != null) {
+            hConfig.setJdbcUrl(jdbcUrl);
+            hConfig.setUsername(getConnectionInfo().getUsername());
+            hConfig.setPassword(getConnectionInfo().getPassword());
+            if (jdbcUrl.startsWith("jdbc:postgresql:")) {
+                hConfig.addDataSourceProperty("reWriteBatchedInserts", true);
+            }
+        } else {
+            hConfig.setDataSourceClassName("org.postgresql.ds.PGSimpleDataSource");
+            hConfig.addDataSourceProperty("serverName", getConnectionInfo().getAddress());
+            hConfig.addDataSourceProperty("portNumber", getConnectionInfo().getPort());
+            hConfig.addDataSourceProperty("databaseName", getConnectionInfo().getDatabaseName());
+            hConfig.addDataSourceProperty("user", getConnectionInfo().getUsername());
+            hConfig.addDataSourceProperty("password", getConnectionInfo().getPassword());
+            hConfig.addDataSourceProperty("reWriteBatchedInserts", true);
+        }
+        hConfig.setConnectionTimeout(5000);
+        dataSource = new HikariDataSource(hConfig);
+    }
+
+    @Override
+    public synchronized void connect() throws SQLException {
+        setupConfig();
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            dataSource.close();
+            throw e;
+        }
+        setConnected(true);
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        setConnected(false);
+        if (connection != null) {
+            connection.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public String toDatabaseType(Field f) {
+        Class<?> clazz = f.getType();
+        if (clazz == Boolean.class || clazz == boolean.class) {
+            return "BOOLEAN";
+        }
+        if (clazz == Integer.class || clazz == int.class) {
+            return "INTEGER";
+        }
+        if (clazz == Long.class || clazz == long.class) {
+            return "BIGINT";
+        }
+        if (clazz == Short.class || clazz == short.class || clazz == Byte.class || clazz == byte.class) {
+            return "SMALLINT";
+        }
+        if (clazz == Double.class || clazz == double.class) {
+            return "DOUBLE PRECISION";
+        }
+        if (clazz == Float.class || clazz == float.class) {
+            return "REAL";
+        }
+        if (clazz == byte[].class || BinaryValue.class.isAssignableFrom(clazz) || InputStream.class.isAssignableFrom(clazz)) {
+            return "BYTEA";
+        }
+
+        // converters shared with the other databases return MySQL types
+        String type = super.toDatabaseType(f);
+        if (type.startsWith("TINYINT")) {
+            return "SMALLINT";
+        }
+        if (type.startsWith("DATETIME")) {
+            return "TIMESTAMP" + type.substring("DATETIME".length());
+        }
+        return type;
+    }
+
+    @Override
+    protected String getColumnDefinitionSql(AbstractTable<?> abstractTable, ColumnMetadata columnMetadata) {
+        Field f = columnMetadata.getField();
+        Column column = columnMetadata.getColumn();
+        String name = columnMetadata.getName();
+        char bt = getBacktick();
+        String sql = toDatabaseType(f);
+
+        if (column.autoIncrement()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "column was annotated as AUTO_INCREMENT but wrapper type is not a number");
+            }
+            sql += " GENERATED BY DEFAULT AS IDENTITY";
+        }
+
+        if (!columnMetadata.isNullable()) {
+            sql += " NOT NULL";
+        } else if (ReflectionUtil.isPrimitiveClass(f.getType())) {
+            throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                "column was annotated as NULLABLE but wrapper type is a primitive type");
+        }
+
+        if (!StringUtil.isEmptyOrNull(column.defaultValue())) {
+            sql += " DEFAULT " + column.defaultValue();
+        }
+
+        if (column.unsigned()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "column was annotated as UNSIGNED but wrapper type is not a number");
+            }
+            sql += " CHECK (" + bt + name + bt + " >= 0)";
+        }
+        return sql;
+    }
+
+    /**
+     * Also adds the column comments and the full-text indexes, which can't be declared inside of <code>CREATE TABLE</code>
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public <T extends Row> void createTable(AbstractTable<T> abstractTable) {
+        super.createTable(abstractTable);
+
+        char bt = getBacktick();
+        String tableName = bt + abstractTable.getName() + bt;
+        for (ColumnMetadata column : abstractTable.getMetadata().getColumns()) {
+            if (!StringUtil.isEmptyOrNull(column.getColumn().comment())) {
+                abstractTable.executeUpdate("COMMENT ON COLUMN " + tableName + "." + bt + column.getName() + bt + " IS "
+                                            + stringify(column.getColumn().comment()));
+            }
+        }
+
+        for (IndexMetadata index : abstractTable.getMetadata().getFullTextIndexes()) {
+            abstractTable.executeUpdate("CREATE INDEX IF NOT EXISTS " + bt + index.getName(abstractTable.getName()) + bt + " ON " + tableName
+                                        + " USING GIN (" + toTsVector(index.getColumns()) + ")");
+        }
+    }
+
+    @Override
+    protected String uniqueKeyToSql(AbstractTable<?> abstractTable, String name, String columns) {
+        char bt = getBacktick();
+        // constraint names have to be unique in the whole schema
+        return "CONSTRAINT " + bt + abstractTable.getName() + "_" + name + bt + " UNIQUE (" + columns + ")";
+    }
+
+    @Override
+    protected String limitToSql(int offset, int rowCount) {
+        return "LIMIT " + rowCount + " OFFSET " + offset;
+    }
+
+    @Override
+    public String stringify(String s) {
+        if (s == null) {
+            return null;
+        }
+        return "'" + s.replace("'", "''") + "'";
+    }
+
+    @Override
+    public String binaryToSql(byte[] bytes) {
+        return "'\\x" + StringUtil.toHex(bytes) + "'::bytea";
+    }
+
+    @Override
+    protected String getUpsertSql(AbstractTable<?> abstractTable, List<ColumnMetadata> columns) {
+        return onConflictUpsertSql(abstractTable, columns);
+    }
+
+    /**
+     * Identity columns don't accept <code>NULL</code>, so unset auto increment values are left out and take the next sequence value
+     */
+    @Override
+    protected boolean omitsUnsetAutoIncrementColumns() {
+        return true;
+    }
+
+    @Override
+    protected boolean supportsEngines() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsInlineIndexes() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsIndexPrefixes() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsDeleteLimit() {
+        return false;
+    }
+
+    /**
+     * PostgreSQL doesn't create indexes for foreign keys, so all indexes are kept
+     */
+    @Override
+    public List<IndexMetadata> getIndexes(AbstractTable<?> abstractTable) {
+        return abstractTable.getMetadata().getIndexes();
+    }
+
+    @Override
+    public String getCreateIndexSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        char bt = getBacktick();
+        return "CREATE INDEX IF NOT EXISTS " + bt + index.getName(abstractTable.getName()) + bt + " ON " + bt + abstractTable.getName() + bt
+               + " (" + indexColumnsToSql(index) + ")";
+    }
+
+    @Override
+    protected String fullTextIndexToSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        return null; // created by createTable
+    }
+
+    /**
+     * Searches all words of the value, the columns have to be given in the order of the full-text index to use it
+     */
+    @Override
+    protected String matchToSql(WhereQuery tQuery, MatchCondition condition, String value) {
+        List<String> columns = new ArrayList<>();
+        columns.add(tQuery.getColumn());
+        columns.addAll(condition.getAdditionalColumns());
+        return (condition.isNegated() ? "NOT " : "") + "(" + toTsVector(columns) + " @@ plainto_tsquery('simple', " + value + "))";
+    }
+
+    private String toTsVector(List<String> columns) {
+        char bt = getBacktick();
+        String text = "";
+        for (String column : columns) {
+            if (!text.equals("")) {
+                text += " || ' ' || ";
+            }
+            text += "COALESCE(" + bt + column + bt + ", '')";
+        }
+        return "to_tsvector('simple', " + text + ")";
+    }
+
+    /**
+     * Tables with auto increment columns and without a key generator need the generated keys, so their rows are inserted with
+     * batches which return the keys. All other rows are copied with {@link #insertBatch(AbstractTable, List)}.
+     */
+    @Override
+    public <T extends Row> List<T> insertAll(AbstractTable<T> abstractTable, List<T> rows) {
+        Validate.notNull(rows);
+        if (abstractTable.getKeyGenerator() == null && !abstractTable.getMetadata().getAutoIncrementColumns().isEmpty()) {
+            executeBatchInsert(abstractTable, rows, true);
+            return rows;
+        }
+        insertBatch(abstractTable, rows);
+        return rows;
+    }
+
+    /**
+     * Streams the rows with <code>COPY ... FROM STDIN</code> if possible, unset auto increment columns are left out of the column list
+     */
+    @Override
+    public <T extends Row> void insertBatch(AbstractTable<T> abstractTable, List<T> rows) {
+        Validate.notNull(rows);
+        List<ColumnMetadata> columns = abstractTable.getMetadata().getColumns();
+        Object copyManager = rows.isEmpty() || !isCopySupported(columns) ? null : getCopyManager();
+        if (copyManager == null) {
+            super.insertBatch(abstractTable, rows);
+            return;
+        }
+
+        String sql = null;
+        List<ColumnMetadata> copyColumns = null;
+        try {
+            StringBuilder csv = new StringBuilder();
+            int count = 0;
+            for (T row : rows) {
+                Validate.notNull(row);
+                assignGeneratedKeys(abstractTable, row);
+                List<ColumnMetadata> rowColumns = getInsertColumns(columns, row);
+                if (!rowColumns.equals(copyColumns) || count >= COPY_CHUNK_SIZE) {
+                    if (count > 0) {
+                        copyIn(copyManager, sql, csv);
+                        csv.setLength(0);
+                        count = 0;
+                    }
+                    copyColumns = rowColumns;
+                    sql = getCopySql(abstractTable, copyColumns);
+                }
+                appendCsvRow(csv, copyColumns, row);
+                count++;
+            }
+            copyIn(copyManager, sql, csv);
+        } catch (SQLException e) {
+            onSqlException(e);
+            System.out.println("Couldn't execute SQL copy statement: " + sql);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getCopySql(AbstractTable<?> abstractTable, List<ColumnMetadata> columns) {
+        char bt = getBacktick();
+        String columnNames = "";
+        for (ColumnMetadata column : columns) {
+            if (!columnNames.equals("")) {
+                columnNames += ", ";
+            }
+            columnNames += bt + column.getName() + bt;
+        }
+        return "COPY " + bt + abstractTable.getName() + bt + " (" + columnNames + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    /**
+     * @return true if all columns can be written as CSV without a converter
+     */
+    private boolean isCopySupported(List<ColumnMetadata> columns) {
+        for (ColumnMetadata column : columns) {
+            Class<?> type = column.getType();
+            if (type != String.class && type != UUID.class && type != byte[].class && !ReflectionUtil.isPrimitiveClass(type)
+                && !ReflectionUtil.isWrapperClass(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendCsvRow(StringBuilder csv, List<ColumnMetadata> columns, Object row) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            Object value = columns.get(i).get(row);
+            if (value == null) {
+                continue; // unquoted empty values are NULL
+            }
+            if (value instanceof byte[]) {
+                csv.append("\\x").append(StringUtil.toHex((byte[]) value));
+            } else if (value instanceof Boolean) {
+                csv.append((Boolean) value ? 't' : 'f');
+            } else if (value instanceof String || value instanceof Character) {
+                csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+            } else {
+                csv.append(value);
+            }
+        }
+        csv.append('\n');
+    }
+
+    /**
+     * The PostgreSQL driver is accessed with reflection, since it is only available at runtime
+     * @return the <code>CopyManager</code> of the connection or null if it isn't a PostgreSQL driver connection
+     */
+    @Nullable
+    private Object getCopyManager() {
+        try {
+            Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+            Connection connection = getConnection();
+            if (!connection.isWrapperFor(pgConnectionClass)) {
+                return null;
+            }
+            Object pgConnection = connection.unwrap(pgConnectionClass);
+            return pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+        } catch (ClassNotFoundException e) {
+            return null; // e.g. H2 in PostgreSQL mode
+        } catch (ReflectiveOperationException | SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void copyIn(Object copyManager, String sql, CharSequence csv) throws SQLException {
+        try {
+            Class.forName("org.postgresql.copy.CopyManager").getMethod("copyIn", String.class, Reader.class)
+                    .invoke(copyManager, sql, new StringReader(csv.toString()));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
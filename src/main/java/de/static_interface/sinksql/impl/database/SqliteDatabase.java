@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.DatabaseConnectionInfo;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.exception.InvalidSqlColumnException;
+import de.static_interface.sinksql.query.condition.MatchCondition;
+import de.static_interface.sinksql.query.impl.WhereQuery;
+import de.static_interface.sinksql.util.ReflectionUtil;
+import de.static_interface.sinksql.util.StringUtil;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * SQLite database implementation<br/>
+ * SQLite has no storage engines, column comments, <code>UNSIGNED</code> or <code>ZEROFILL</code>, these are ignored.
+ * Auto increment columns have to be the only primary key column. Full-text searches fall back to a case-insensitive
+ * substring search of the given value.<br/>
+ * See <a href="https://www.sqlite.org/">SQLite homepage</a> for more information about SQLite
+ */
+public class SqliteDatabase extends SqlDatabase {
+
+    private final File dbFile;
+    private final SqliteOptions options;
+
+    /**
+     * @param file the file to be used for storage
+     * @param prefix the prefix for tables
+     */
+    public SqliteDatabase(File file, String prefix) {
+        this(file, prefix, new SqliteOptions());
+    }
+
+    /**
+     * @param file the file to be used for storage
+     * @param prefix the prefix for tables
+     * @param options the journal and connection settings
+     */
+    public SqliteDatabase(File file, final String prefix, SqliteOptions options) {
+        super(new DatabaseConnectionInfo() {
+            @Override
+            public String getAddress() {
+                return null;
+            }
+
+            @Override
+            public int getPort() {
+                return 0;
+            }
+
+            @Override
+            public String getUsername() {
+                return null;
+            }
+
+            @Override
+            public String getPassword() {
+                return null;
+            }
+
+            @Override
+            public String getTablePrefix() {
+                return prefix;
+            }
+
+            @Override
+            public String getDatabaseName() {
+                return null;
+            }
+        }, '"');
+        dbFile = file;
+        this.options = options;
+    }
+
+    @Override
+    protected void setupConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setMaximumPoolSize(options.getMaximumPoolSize());
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl(getJdbcUrl());
+        config.addDataSourceProperty("journal_mode", options.isWal() ? "WAL" : "DELETE");
+        config.addDataSourceProperty("synchronous", options.getSynchronous().name());
+        config.addDataSourceProperty("busy_timeout", String.valueOf(options.getBusyTimeout()));
+        config.addDataSourceProperty("foreign_keys", "true");
+        config.setConnectionInitSql("PRAGMA mmap_size=" + options.getMmapSize());
+        config.setConnectionTimeout(5000);
+        dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * @return the settings of this database
+     */
+    public SqliteOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return the JDBC URL of the database file
+     */
+    protected String getJdbcUrl() {
+        return "jdbc:sqlite:" + dbFile.getAbsolutePath();
+    }
+
+    @Override
+    public synchronized void connect() throws SQLException {
+        setupConfig();
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            dataSource.close();
+            throw e;
+        }
+        setConnected(true);
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        setConnected(false);
+        if (connection != null) {
+            connection.close();
+        }
+
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public String toDatabaseType(Field f) {
+        Class<?> clazz = f.getType();
+        if (AbstractTable.getTypeConverter(getClass(), clazz) != null) {
+            return super.toDatabaseType(f);
+        }
+
+        if (clazz == Integer.class || clazz == int.class || clazz == Long.class || clazz == long.class
+            || clazz == Short.class || clazz == short.class || clazz == Byte.class || clazz == byte.class
+            || clazz == Boolean.class || clazz == boolean.class) {
+            return "INTEGER";
+        }
+        if (clazz == Double.class || clazz == double.class || clazz == Float.class || clazz == float.class) {
+            return "REAL";
+        }
+        if (clazz == String.class) {
+            return "TEXT";
+        }
+        return super.toDatabaseType(f);
+    }
+
+    @Override
+    protected String getColumnDefinitionSql(AbstractTable<?> abstractTable, ColumnMetadata columnMetadata) {
+        Field f = columnMetadata.getField();
+        Column column = columnMetadata.getColumn();
+        String name = columnMetadata.getName();
+
+        if (column.autoIncrement()) {
+            if (!ReflectionUtil.isNumber(f.getType())) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "column was annotated as AUTO_INCREMENT but wrapper type is not a number");
+            }
+            if (!hasInlinePrimaryKey(abstractTable)) {
+                throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                    "SQLite only supports AUTO_INCREMENT on the only primary key column");
+            }
+            return "INTEGER PRIMARY KEY AUTOINCREMENT";
+        }
+
+        String sql = toDatabaseType(f);
+        if (!columnMetadata.isNullable()) {
+            sql += " NOT NULL";
+        } else if (ReflectionUtil.isPrimitiveClass(f.getType())) {
+            throw new InvalidSqlColumnException(abstractTable, f, name,
+                                                "column was annotated as NULLABLE but wrapper type is a primitive type");
+        }
+
+        if (!StringUtil.isEmptyOrNull(column.defaultValue())) {
+            sql += " DEFAULT " + column.defaultValue();
+        }
+        return sql;
+    }
+
+    /**
+     * An auto increment column has to be declared as <code>INTEGER PRIMARY KEY AUTOINCREMENT</code>
+     */
+    @Override
+    protected boolean hasInlinePrimaryKey(AbstractTable<?> abstractTable) {
+        List<ColumnMetadata> primaryKeys = abstractTable.getMetadata().getPrimaryKeys();
+        return primaryKeys.size() == 1 && primaryKeys.get(0).isAutoIncrement();
+    }
+
+    @Override
+    protected String uniqueKeyToSql(AbstractTable<?> abstractTable, String name, String columns) {
+        char bt = getBacktick();
+        return "CONSTRAINT " + bt + name + bt + " UNIQUE (" + columns + ")";
+    }
+
+    @Override
+    protected String limitToSql(int offset, int rowCount) {
+        return "LIMIT " + rowCount + " OFFSET " + offset;
+    }
+
+    @Override
+    public String stringify(String s) {
+        if (s == null) {
+            return null;
+        }
+        return "'" + s.replace("'", "''") + "'";
+    }
+
+    @Override
+    protected String getUpsertSql(AbstractTable<?> abstractTable, List<ColumnMetadata> columns) {
+        return onConflictUpsertSql(abstractTable, columns);
+    }
+
+    @Override
+    protected boolean supportsEngines() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsInlineIndexes() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsIndexPrefixes() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsDeleteLimit() {
+        return false;
+    }
+
+    /**
+     * SQLite doesn't create indexes for foreign keys, so all indexes are kept
+     */
+    @Override
+    public List<IndexMetadata> getIndexes(AbstractTable<?> abstractTable) {
+        return abstractTable.getMetadata().getIndexes();
+    }
+
+    @Override
+    public String getCreateIndexSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        char bt = getBacktick();
+        return "CREATE INDEX IF NOT EXISTS " + bt + index.getName(abstractTable.getName()) + bt + " ON " + bt + abstractTable.getName() + bt
+               + " (" + indexColumnsToSql(index) + ")";
+    }
+
+    @Override
+    protected String fullTextIndexToSql(AbstractTable<?> abstractTable, IndexMetadata index) {
+        return null; // searched without index, see matchToSql
+    }
+
+    @Override
+    protected String matchToSql(WhereQuery tQuery, MatchCondition condition, String value) {
+        char bt = getBacktick();
+        String text = "COALESCE(" + bt + tQuery.getColumn() + bt + ", '')";
+        for (String column : condition.getAdditionalColumns()) {
+            text += " || ' ' || COALESCE(" + bt + column + bt + ", '')";
+        }
+        return (condition.isNegated() ? "NOT " : "") + "INSTR(LOWER(" + text + "), LOWER(" + value + ")) > 0";
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.database;
+
+/**
+ * Journal, durability and connection settings of a {@link SqliteDatabase}<br/>
+ * By default the write-ahead log is used with <code>synchronous=NORMAL</code>, which only loses the last commits on a
+ * power failure, and up to 256 MB of the file are read through memory mapping.
+ */
+public class SqliteOptions {
+
+    private boolean wal = true;
+    private Synchronous synchronous = Synchronous.NORMAL;
+    private long mmapSize = 256L * 1024 * 1024;
+    private int busyTimeout = 5000;
+    private int maximumPoolSize = 4;
+
+    /**
+     * @return true if the write-ahead log is used instead of the rollback journal
+     */
+    public boolean isWal() {
+        return wal;
+    }
+
+    /**
+     * @param wal true to use the write-ahead log, which allows reads while writing, instead of the rollback journal
+     * @return this
+     */
+    public SqliteOptions setWal(boolean wal) {
+        this.wal = wal;
+        return this;
+    }
+
+    /**
+     * @return how often SQLite waits for data to be written to disk
+     */
+    public Synchronous getSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * @param synchronous how often SQLite waits for data to be written to disk
+     * @return this
+     */
+    public SqliteOptions setSynchronous(Synchronous synchronous) {
+        this.synchronous = synchronous;
+        return this;
+    }
+
+    /**
+     * @return the maximum bytes of the database file which are memory mapped, 0 disables memory mapped reads
+     */
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    /**
+     * @param mmapSize the maximum bytes of the database file which are memory mapped, 0 disables memory mapped reads
+     * @return this
+     */
+    public SqliteOptions setMmapSize(long mmapSize) {
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    /**
+     * @return the time in milliseconds a connection waits for a lock held by another connection
+     */
+    public int getBusyTimeout() {
+        return busyTimeout;
+    }
+
+    /**
+     * @param busyTimeout the time in milliseconds a connection waits for a lock held by another connection
+     * @return this
+     */
+    public SqliteOptions setBusyTimeout(int busyTimeout) {
+        this.busyTimeout = busyTimeout;
+        return this;
+    }
+
+    /**
+     * @return the maximum size of the connection pool
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * @param maximumPoolSize the maximum size of the connection pool, SQLite allows only one writer at a time
+     * @return this
+     */
+    public SqliteOptions setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+        return this;
+    }
+
+    /**
+     * The values of <code>PRAGMA synchronous</code>
+     */
+    public enum Synchronous {
+        OFF,
+        NORMAL,
+        FULL,
+        EXTRA
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.row;
+
+import de.static_interface.sinksql.IdRow;
+import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.annotation.UniqueKey;
+
+public final class CounterRow implements IdRow {
+
+    @Column(autoIncrement = true, primaryKey = true)
+    public Integer id;
+
+    /**
+     * The name of the counter
+     */
+    @Column
+    @UniqueKey(combinationId = 0)
+    public String name;
+
+    /**
+     * The shard of the counter this row belongs to
+     */
+    @Column
+    @UniqueKey(combinationId = 0)
+    public Integer shard;
+
+    /**
+     * The partial value of the counter stored in this shard
+     */
+    @Column
+    public Long value;
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getIdColumn() {
+        return "id";
+    }
+}
@@ -19,6 +19,7 @@ package de.static_interface.sinksql.impl.row;
 
 import de.static_interface.sinksql.IdRow;
 import de.static_interface.sinksql.annotation.Column;
+import de.static_interface.sinksql.annotation.Index;
 
 import javax.annotation.Nullable;
 
@@ -31,19 +32,28 @@ public final class OptionsRow implements IdRow {
      * The option key
      */
     @Column
+    @Index(name = "{TABLE}_target_key", order = 1, length = 191)
     public String key;
 
     /**
-     * The binary serialized option value
+     * The Base64 encoded, Java serialized option value of rows which have not been migrated to {@link #data} yet
      */
     @Column
     public String value;
 
+    /**
+     * The option value, encoded by the {@link de.static_interface.sinksql.codec.ValueCodec} of the table
+     */
+    @Column
+    @Nullable
+    public byte[] data;
+
     /**
      * The optional foreignkey target associated with this option
      */
     @Column
     @Nullable
+    @Index(name = "{TABLE}_target_key", order = 0)
     public Integer foreignTarget;
 
     @Override
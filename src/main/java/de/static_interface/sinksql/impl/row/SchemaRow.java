@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.row;
+
+import de.static_interface.sinksql.Row;
+import de.static_interface.sinksql.annotation.Column;
+
+public final class SchemaRow implements Row {
+
+    /**
+     * The prefixed name of the table
+     */
+    @Column(primaryKey = true)
+    public String tableName;
+
+    /**
+     * The fingerprint of the schema the table has been created with
+     */
+    @Column
+    public String fingerprint;
+
+    /**
+     * The time in epoch milliseconds when the table has been created or updated
+     */
+    @Column
+    public Long updated;
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.table;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.impl.row.CounterRow;
+import de.static_interface.sinksql.query.Query;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A predefined table for frequently updated counters<br/>
+ * Each counter is spread over multiple shard rows, so concurrent increments don't have to wait for the same row lock.
+ * The value of a counter is the sum of all its shards.
+ */
+public class CounterTable extends AbstractTable<CounterRow> {
+
+    private final int shards;
+
+    /**
+     * @param name the name of the table
+     * @param db the database
+     * @param shards the amount of rows each counter is spread over
+     */
+    public CounterTable(String name, Database db, int shards) {
+        super(name, db);
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards can't be less than 1!");
+        }
+        this.shards = shards;
+    }
+
+    /**
+     * Atomically add the given delta to a counter
+     * @param counter the name of the counter
+     * @param delta the value to add, may be negative
+     */
+    public void increment(String counter, long delta) {
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        if (addToShard(counter, shard, delta) > 0) {
+            return;
+        }
+
+        CounterRow row = new CounterRow();
+        row.name = counter;
+        row.shard = shard;
+        row.value = delta;
+        try {
+            insert(row);
+        } catch (RuntimeException e) {
+            // the shard row may have been created concurrently
+            if (addToShard(counter, shard, delta) < 1) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Atomically subtract the given delta from a counter
+     * @param counter the name of the counter
+     * @param delta the value to subtract
+     */
+    public void decrement(String counter, long delta) {
+        increment(counter, -delta);
+    }
+
+    /**
+     * @param counter the name of the counter
+     * @return the sum of all shards of the counter or 0 if the counter doesn't exist
+     */
+    public long getValue(String counter) {
+        long value = 0;
+        for (long shardValue : Query.from(this).select("value").where("name", Query.eq("?")).longColumn("value", counter)) {
+            value += shardValue;
+        }
+        return value;
+    }
+
+    /**
+     * Delete all shards of a counter
+     * @param counter the name of the counter
+     */
+    public void reset(String counter) {
+        Query.from(this).delete().where("name", Query.eq("?")).execute(counter);
+    }
+
+    /**
+     * @return the amount of rows each counter is spread over
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    @Override
+    public Class<CounterRow> getRowClass() {
+        return CounterRow.class;
+    }
+
+    private int addToShard(String counter, int shard, long delta) {
+        return Query.from(this).update().set("value", Query.add("?")).where("name", Query.eq("?")).and("shard", Query.eq("?"))
+                .execute(delta, counter, shard);
+    }
+}
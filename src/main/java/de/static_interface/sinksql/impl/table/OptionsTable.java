@@ -20,19 +20,33 @@ package de.static_interface.sinksql.impl.table;
 import de.static_interface.sinksql.AbstractTable;
 import de.static_interface.sinksql.CascadeAction;
 import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.codec.JavaSerializationCodec;
+import de.static_interface.sinksql.codec.TaggedBinaryCodec;
+import de.static_interface.sinksql.codec.ValueCodec;
 import de.static_interface.sinksql.impl.row.OptionsRow;
+import de.static_interface.sinksql.query.Order;
+import de.static_interface.sinksql.query.Query;
+import de.static_interface.sinksql.query.impl.WhereQuery;
 import de.static_interface.sinksql.util.StringUtil;
+import org.apache.commons.lang3.Validate;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
 public abstract class OptionsTable extends AbstractTable<OptionsRow> {
 
+    private volatile ValueCodec codec = TaggedBinaryCodec.INSTANCE;
+
     /**
      * A predefined table for options
      * @param name the name of the table
@@ -42,6 +56,38 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
         super(name, db);
     }
 
+    @Override
+    @SuppressWarnings("deprecation")
+    public void create() throws SQLException {
+        super.create();
+        if (!(getDatabase() instanceof SqlDatabase)) {
+            return; // the table has just been created from the current row class
+        }
+
+        // Tables created by older versions store the options in the Base64 encoded value column only
+        ResultSet rs = executeQuery("SELECT * FROM `{TABLE}` WHERE 1=0");
+        boolean hasDataColumn = false;
+        try {
+            for (String column : getColumnLabels(rs)) {
+                if (column.equalsIgnoreCase("data")) {
+                    hasDataColumn = true;
+                    break;
+                }
+            }
+        } finally {
+            rs.close();
+        }
+
+        if (!hasDataColumn) {
+            try {
+                String type = getDatabase().toDatabaseType(OptionsRow.class.getField("data"));
+                executeUpdate("ALTER TABLE `{TABLE}` ADD `data` " + type + " NULL");
+            } catch (NoSuchFieldException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     /**
      * Set an options value
      * @param key the option key
@@ -63,16 +109,11 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
         }
 
         OptionsRow row;
-        String parsedValue;
         try {
             row = getRowClass().newInstance();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(value);
-            oos.close();
-            parsedValue = Base64.getEncoder().encodeToString(baos.toByteArray());
             row.key = key;
-            row.value = parsedValue;
+            row.value = "";
+            row.data = codec.encode(value);
             row.foreignTarget = foreignTarget;
             insert(row);
         } catch (Exception e) {
@@ -80,12 +121,110 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
         }
     }
 
+    /**
+     * Set multiple option values with a single batch insert<br/>
+     * The ids of the inserted rows are not read back
+     * @param options the option keys and values
+     * @param foreignTarget the associated foreignkey target (for example, a userId if it is an user-based option)
+     */
+    public void setOptions(Map<String, Object> options, @Nullable Integer foreignTarget) {
+        if (options.isEmpty()) {
+            return;
+        }
+
+        List<OptionsRow> rows = new ArrayList<>(options.size());
+        try {
+            for (Map.Entry<String, Object> entry : options.entrySet()) {
+                Object value = entry.getValue();
+                if (value != null && value.equals("null")) {
+                    value = null;
+                }
+
+                OptionsRow row = getRowClass().newInstance();
+                row.key = entry.getKey();
+                row.value = "";
+                row.data = codec.encode(value);
+                row.foreignTarget = foreignTarget;
+                rows.add(row);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        insertBatch(rows);
+    }
+
+    /**
+     * Get multiple option values with a single query<br/>
+     * If a key has been set multiple times, the first value will be used, same as with {@link #getOption(String, Integer)}
+     * @param keys the option keys
+     * @param foreignTarget the foreignkey associated with the options or null for options which don't have one
+     * @return the values by their keys, keys which don't exist are not contained
+     */
+    public Map<String, Object> getOptions(Collection<String> keys, @Nullable Integer foreignTarget) {
+        Map<String, Object> options = new HashMap<>();
+        if (keys.isEmpty()) {
+            return options;
+        }
+
+        List<Object> bindings = new ArrayList<>(keys.size() + 1);
+        WhereQuery<OptionsRow> query = whereForeignTarget(bindings, foreignTarget);
+        Iterator<String> it = keys.iterator();
+        bindings.add(it.next());
+        query = query.and("key", Query.eq("?"));
+        if (it.hasNext()) {
+            query.openParanthesis();
+            while (it.hasNext()) {
+                bindings.add(it.next());
+                query = query.or("key", Query.eq("?"));
+            }
+            query.closeParanthesis();
+        }
+
+        readOptions(options, query, bindings.toArray());
+        return options;
+    }
+
+    /**
+     * @param foreignTarget the foreignkey associated with the options or null for options which don't have one
+     * @return all option values by their keys
+     */
+    public Map<String, Object> getAllOptions(@Nullable Integer foreignTarget) {
+        List<Object> bindings = new ArrayList<>(1);
+        WhereQuery<OptionsRow> query = whereForeignTarget(bindings, foreignTarget);
+
+        Map<String, Object> options = new HashMap<>();
+        readOptions(options, query, bindings.toArray());
+        return options;
+    }
+
+    private WhereQuery<OptionsRow> whereForeignTarget(List<Object> bindings, @Nullable Integer foreignTarget) {
+        if (foreignTarget == null) {
+            return Query.from(this).select().where("foreignTarget", Query.eq(null));
+        }
+        bindings.add(foreignTarget);
+        return Query.from(this).select().where("foreignTarget", Query.eq("?"));
+    }
+
+    private void readOptions(Map<String, Object> options, WhereQuery<OptionsRow> query, Object... bindings) {
+        for (OptionsRow row : query.orderBy("id", Order.ASC).getResults(bindings)) {
+            if (options.containsKey(row.key)) {
+                continue;
+            }
+            try {
+                options.put(row.key, decode(row));
+            } catch (Exception e) {
+                throw new RuntimeException(
+                        "Error deserializing option #" + row.id + ", params: [" + StringUtil.formatArrayToString(bindings, ", ") + "]", e);
+            }
+        }
+    }
+
     /**
      * @param key the option key
      * @return the deserialized option value which was set using {@link #setOption(String, Object)}
      */
     public Object getOption(String key) {
-        return getOptionInternal("SELECT * FROM {TABLE} WHERE `key`=?", Object.class, false, key);
+        return getOptionInternal(Object.class, false, key);
     }
 
     /**
@@ -94,7 +233,7 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
      * @return the deserialized option value which was set using {@link #setOption(String, Object, Integer)}
      */
     public Object getOption(String key, Integer foreignId) {
-        return getOptionInternal("SELECT * FROM `{TABLE}` WHERE `key`=? AND `foreignTarget`=?", Object.class, false, key, foreignId);
+        return getOptionInternal(Object.class, false, key, foreignId);
     }
 
     @Override
@@ -111,7 +250,7 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
      */
     public <K> K getOption(String key, Class<K> clazz, K defaultValue) {
         try {
-            return getOptionInternal("SELECT * FROM {TABLE} WHERE `key`=?", clazz, true, key);
+            return getOptionInternal(clazz, true, key);
         } catch (NullPointerException ignored) {
             return defaultValue;
         }
@@ -127,36 +266,71 @@ public abstract class OptionsTable extends AbstractTable<OptionsRow> {
      */
     public <K> K getOption(String key, @Nullable Integer foreignId, Class<K> clazz, K defaultValue) {
         try {
-            return getOptionInternal("SELECT * FROM {TABLE} WHERE `key`=? AND `foreignTarget`=?", clazz, true, key, foreignId);
+            return getOptionInternal(clazz, true, key, foreignId);
         } catch (NullPointerException ignored) {
             return defaultValue;
         }
     }
 
-    private <K> K getOptionInternal(String query, Class<K> clazz, boolean throwExceptionOnNull, Object... bindings) {
-        String s;
-        OptionsRow[] result = get(query, bindings);
-        if (result == null || result.length < 1) {
+    private <K> K getOptionInternal(Class<K> clazz, boolean throwExceptionOnNull, Object... bindings) {
+        WhereQuery<OptionsRow> query = Query.from(this).select().where("key", Query.eq("?"));
+        if (bindings.length > 1) {
+            query = query.and("foreignTarget", Query.eq("?"));
+        }
+        OptionsRow[] result = query.getResults(bindings);
+        if (result.length < 1) {
             if (throwExceptionOnNull) {
                 throw new NullPointerException();
             }
             return null;
         }
-        s = result[0].value;
-        if (s == null) {
+        try {
+            return (K) decode(result[0]);
+        } catch (Exception e) {
+            throw new RuntimeException(
+                    "Error deserializing option #" + result[0].id + ", params: [" + StringUtil.formatArrayToString(bindings, ", ") + "]", e);
+        }
+    }
+
+    /**
+     * Decodes the value of an option<br/>
+     * Rows which still have a Base64 encoded, Java serialized value are rewritten with the current codec.
+     * @param row the row to decode
+     * @return the value of the row
+     */
+    protected Object decode(OptionsRow row) {
+        if (row.data != null) {
+            return codec.decode(row.data);
+        }
+
+        if (row.value == null || row.value.isEmpty()) {
             return null;
         }
+
+        Object value = JavaSerializationCodec.INSTANCE.decode(Base64.getDecoder().decode(row.value));
         try {
-            byte[] data = Base64.getDecoder().decode(s);
-            ObjectInputStream ois = new ObjectInputStream(
-                    new ByteArrayInputStream(data));
-            Object o = ois.readObject();
-            ois.close();
-            return (K) o;
+            Query.from(this).update().set("data", "?").set("value", "?").where("id", Query.eq("?")).execute(codec.encode(value), "", row.id);
         } catch (Exception e) {
-            throw new RuntimeException(
-                    "Error deserializing \"" + s + "\" on query: " + query + ", params: [" + StringUtil.formatArrayToString(bindings, ", ") + "]", e);
+            e.printStackTrace(); // the value is still readable, the row will be migrated on the next read
         }
+        return value;
+    }
+
+    /**
+     * @return the codec which encodes the option values
+     */
+    public ValueCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Sets the codec which encodes the option values<br/>
+     * Values which have been written with another codec can't be read anymore.
+     * @param codec the codec to use
+     */
+    public void setCodec(ValueCodec codec) {
+        Validate.notNull(codec);
+        this.codec = codec;
     }
 
     @Nullable
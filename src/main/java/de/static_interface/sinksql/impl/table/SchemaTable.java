@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.table;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.impl.row.SchemaRow;
+import de.static_interface.sinksql.query.Query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A predefined table which stores the schema fingerprints of the tables created by {@link Database#createTables(java.util.Collection)}
+ */
+public class SchemaTable extends AbstractTable<SchemaRow> {
+
+    public static final String TABLE_NAME = "sinksql_schema";
+
+    /**
+     * @param name the name of the table
+     * @param db the database
+     */
+    public SchemaTable(String name, Database db) {
+        super(name, db);
+    }
+
+    /**
+     * @return the fingerprints by the table names
+     */
+    public Map<String, String> getFingerprints() {
+        Map<String, String> fingerprints = new HashMap<>();
+        for (SchemaRow row : Query.from(this).select().getResults()) {
+            fingerprints.put(row.tableName, row.fingerprint);
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Stores the fingerprint of a table, the row of the table is updated if it already exists
+     * @param tableName the name of the table
+     * @param fingerprint the fingerprint of the schema
+     */
+    public void setFingerprint(String tableName, String fingerprint) {
+        long now = System.currentTimeMillis();
+        int affectedRows = Query.from(this).update().set("fingerprint", "?").set("updated", "?").where("tableName", Query.eq("?"))
+                .execute(fingerprint, now, tableName);
+        if (affectedRows == 0) {
+            SchemaRow row = new SchemaRow();
+            row.tableName = tableName;
+            row.fingerprint = fingerprint;
+            row.updated = now;
+            insert(row);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.impl.table;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.impl.row.SequenceRow;
+import de.static_interface.sinksql.key.HiLoKeyGenerator;
+import de.static_interface.sinksql.query.Query;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A predefined table which stores the sequences of {@link HiLoKeyGenerator}s
+ */
+public class SequenceTable extends AbstractTable<SequenceRow> {
+
+    /**
+     * @param name the name of the table
+     * @param db the database
+     */
+    public SequenceTable(String name, Database db) {
+        super(name, db);
+    }
+
+    /**
+     * Atomically allocate the next block of a sequence. The sequence will be created if it doesn't exist
+     * @param sequence the name of the sequence
+     * @param blockSize the amount of keys to allocate
+     * @param initialValue supplies the first key of the sequence, only called if the sequence doesn't exist yet
+     * @return the first key of the allocated block, the block ends before <code>first key + blockSize</code>
+     */
+    public long allocateBlock(String sequence, int blockSize, LongSupplier initialValue) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize can't be less than 1!");
+        }
+        while (true) {
+            SequenceRow row = Query.from(this).select().where("name", Query.eq("?")).get(sequence);
+            if (row == null) {
+                long first = initialValue.getAsLong();
+                row = new SequenceRow();
+                row.name = sequence;
+                row.nextValue = first + blockSize;
+                try {
+                    insert(row);
+                    return first;
+                } catch (RuntimeException e) {
+                    if (Query.from(this).select().where("name", Query.eq("?")).get(sequence) == null) {
+                        throw e; // not a duplicate key, retrying won't help
+                    }
+                    // the sequence has been created concurrently, try again
+                    continue;
+                }
+            }
+
+            // compare-and-set, another node may have allocated a block in the meantime
+            int affectedRows = Query.from(this).update().set("nextValue", "?").where("name", Query.eq("?")).and("nextValue", Query.eq("?"))
+                    .execute(row.nextValue + blockSize, sequence, row.nextValue);
+            if (affectedRows > 0) {
+                return row.nextValue;
+            }
+        }
+    }
+
+    @Override
+    public Class<SequenceRow> getRowClass() {
+        return SequenceRow.class;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.key;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.impl.table.SequenceTable;
+import de.static_interface.sinksql.query.Order;
+import de.static_interface.sinksql.query.Query;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates keys in blocks of {@link #getBlockSize()} from a {@link SequenceTable}<br/>
+ * Only one database round trip is needed per block, all other keys are assigned in memory.
+ * The sequence stores the next free key, so generators with different block sizes can share it.
+ * Unused keys of a block are lost when the application stops.
+ */
+public class HiLoKeyGenerator implements KeyGenerator {
+
+    private final SequenceTable table;
+    private final String sequence;
+    private final int blockSize;
+    private final LongSupplier initialValue;
+    private long next;
+    private long limit;
+
+    /**
+     * @param table the table which stores the sequences
+     * @param sequence the name of the sequence, usually the name of the table the keys are generated for
+     * @param blockSize the amount of keys allocated per round trip
+     */
+    public HiLoKeyGenerator(SequenceTable table, String sequence, int blockSize) {
+        this(table, sequence, blockSize, () -> 1L);
+    }
+
+    /**
+     * Generates keys for the auto increment column of the given table. The sequence is named like the table and
+     * starts after the highest key which already exists, so the generator can be added to tables which already have rows
+     * @param table the table which stores the sequences
+     * @param target the table the keys are generated for
+     * @param blockSize the amount of keys allocated per round trip
+     */
+    public HiLoKeyGenerator(SequenceTable table, AbstractTable<?> target, int blockSize) {
+        this(table, target.getName(), blockSize, () -> getMaxKey(target) + 1);
+    }
+
+    private HiLoKeyGenerator(SequenceTable table, String sequence, int blockSize, LongSupplier initialValue) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize can't be less than 1!");
+        }
+        this.table = table;
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.initialValue = initialValue;
+    }
+
+    @Override
+    public synchronized long nextKey() {
+        if (next >= limit) {
+            next = table.allocateBlock(sequence, blockSize, initialValue);
+            limit = next + blockSize;
+        }
+        return next++;
+    }
+
+    private static long getMaxKey(AbstractTable<?> target) {
+        List<ColumnMetadata> columns = target.getMetadata().getAutoIncrementColumns();
+        if (columns.size() != 1) {
+            throw new IllegalArgumentException(target.getName() + " needs exactly one auto increment column");
+        }
+        String column = columns.get(0).getName();
+        long[] keys = Query.from(target).select(column).orderBy(column, Order.DESC).limit(1).longColumn(column);
+        return keys.length > 0 ? keys[0] : 0;
+    }
+
+    /**
+     * @return the amount of keys allocated per round trip
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return the name of the sequence
+     */
+    public String getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.key;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.annotation.Column;
+
+/**
+ * Generates primary keys on the client side, so rows don't have to wait for database generated keys<br/>
+ * Used for {@link Column#autoIncrement()} columns when set with {@link AbstractTable#setKeyGenerator(KeyGenerator)}
+ */
+public interface KeyGenerator {
+
+    /**
+     * Implementations must be thread-safe and never return the same key twice
+     * @return the next unused key, always greater than 0
+     */
+    long nextKey();
+}
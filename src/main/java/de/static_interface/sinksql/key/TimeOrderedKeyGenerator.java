@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.key;
+
+/**
+ * Generates time-ordered 64 bit keys without any database round trip<br/>
+ * Layout: 41 bits milliseconds since {@link #EPOCH}, 10 bits node id and 12 bits sequence.
+ * Every node which inserts into the same table needs its own node id.
+ */
+public class TimeOrderedKeyGenerator implements KeyGenerator {
+
+    /**
+     * 2016-01-01T00:00:00Z
+     */
+    public static final long EPOCH = 1451606400000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    private final int nodeId;
+    private long lastTimestamp = -1;
+    private int sequence;
+
+    /**
+     * @param nodeId the unique id of this node, from 0 to {@link #MAX_NODE_ID}
+     */
+    public TimeOrderedKeyGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + "!");
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public synchronized long nextKey() {
+        long timestamp = currentTime();
+        if (timestamp < lastTimestamp) {
+            // clock moved backwards, keep counting on the last timestamp
+            timestamp = lastTimestamp;
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                // sequence exhausted for this millisecond
+                while (timestamp <= lastTimestamp) {
+                    timestamp = currentTime();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * @return the node id of this generator
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.maintenance;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.Database;
+import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.annotation.TimeToLive;
+import de.static_interface.sinksql.query.Query;
+import org.apache.commons.lang3.Validate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Deletes expired rows of registered tables in small chunks, so foreground queries are not blocked by long running deletes<br/>
+ * The chunk size adapts to the measured latency of the deletes: it grows while deletes are faster than the target
+ * latency and shrinks when they are slower. After each chunk the service pauses as long as the chunk took.<br/>
+ * Databases which don't support <code>DELETE ... LIMIT</code> are purged by ranges of a single column primary key.
+ */
+public class ExpiryService {
+
+    private final Map<AbstractTable<?>, Expiry> expiries = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    private volatile long targetLatency = TimeUnit.MILLISECONDS.toNanos(100);
+    private volatile int minChunkSize = 100;
+    private volatile int maxChunkSize = 10000;
+
+    /**
+     * Registers a table with a {@link TimeToLive} annotation
+     * @param table the table
+     */
+    public void register(AbstractTable<?> table) {
+        Validate.notNull(table);
+        TimeToLive timeToLive = table.getRowClass().getAnnotation(TimeToLive.class);
+        if (timeToLive == null) {
+            throw new IllegalArgumentException(table.getRowClass().getName() + " is not annotated with @TimeToLive");
+        }
+        register(table, timeToLive.column(), timeToLive.value(), timeToLive.unit());
+    }
+
+    /**
+     * Registers a table whose rows expire after the given time
+     * @param table the table
+     * @param column the column which contains the creation time of a row, see {@link TimeToLive#column()}
+     * @param timeToLive the time to live
+     * @param unit the unit of timeToLive
+     */
+    public void register(AbstractTable<?> table, String column, long timeToLive, TimeUnit unit) {
+        Validate.notNull(table);
+        ColumnMetadata columnMetadata = table.getMetadata().getColumn(column);
+        if (columnMetadata == null) {
+            throw new IllegalArgumentException("Unknown column " + column + " on " + table.getName());
+        }
+        expiries.put(table, new Expiry(table, columnMetadata, unit.toMillis(timeToLive), new PurgeStatistics(minChunkSize * 10)));
+    }
+
+    /**
+     * @param table the table which should not be purged anymore
+     */
+    public void unregister(AbstractTable<?> table) {
+        expiries.remove(table);
+    }
+
+    /**
+     * Starts purging all registered tables on a background thread
+     * @param period the time between the end of a purge and the start of the next one
+     * @param unit the unit of period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SinkSQL-Expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::purgeAll, period, period, unit);
+    }
+
+    /**
+     * Stops the background thread, a running purge is interrupted after its current chunk
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Purges all registered tables. Failures are printed and don't stop the purge of other tables
+     * @return the count of deleted rows
+     */
+    public long purgeAll() {
+        long deleted = 0;
+        for (Expiry expiry : expiries.values()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                deleted += purge(expiry);
+            } catch (Exception e) {
+                System.out.println("Couldn't purge expired rows of " + expiry.table.getName());
+                e.printStackTrace();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes all expired rows of a registered table on the current thread
+     * @param table the table
+     * @return the count of deleted rows
+     */
+    public long purge(AbstractTable<?> table) {
+        Expiry expiry = expiries.get(table);
+        if (expiry == null) {
+            throw new IllegalArgumentException("Table " + table.getName() + " has not been registered");
+        }
+        return purge(expiry);
+    }
+
+    /**
+     * @param table the table
+     * @return the statistics of the table or null if it has not been registered
+     */
+    @Nullable
+    public PurgeStatistics getStatistics(AbstractTable<?> table) {
+        Expiry expiry = expiries.get(table);
+        return expiry == null ? null : expiry.statistics;
+    }
+
+    /**
+     * @param latency the latency a single delete should take
+     * @param unit the unit of latency
+     */
+    public void setTargetLatency(long latency, TimeUnit unit) {
+        targetLatency = unit.toNanos(latency);
+    }
+
+    /**
+     * @param minChunkSize the minimum count of rows deleted by a single statement
+     * @param maxChunkSize the maximum count of rows deleted by a single statement
+     */
+    public void setChunkSizeBounds(int minChunkSize, int maxChunkSize) {
+        Validate.isTrue(minChunkSize > 0 && minChunkSize <= maxChunkSize, "Invalid chunk size bounds");
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    private long purge(Expiry expiry) {
+        if (!expiry.running.compareAndSet(false, true)) {
+            return 0; // already purged by another thread
+        }
+
+        try {
+            Object cutoff = toColumnValue(expiry.column, System.currentTimeMillis() - expiry.timeToLive);
+            AtomicInteger chunkSize = expiry.statistics.chunkSize();
+            long total = 0;
+            while (true) {
+                int size = Math.max(minChunkSize, Math.min(maxChunkSize, chunkSize.get()));
+                long start = System.nanoTime();
+                int deleted = deleteChunk(expiry, cutoff, size);
+                long latency = System.nanoTime() - start;
+
+                expiry.statistics.recordChunk(deleted, latency);
+                total += deleted;
+
+                if (latency > targetLatency) {
+                    chunkSize.set(Math.max(minChunkSize, size / 2));
+                } else if (latency < targetLatency / 2) {
+                    chunkSize.set(Math.min(maxChunkSize, size * 2));
+                }
+
+                if (deleted < size) {
+                    break;
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            expiry.statistics.recordRun(total);
+            return total;
+        } finally {
+            expiry.running.set(false);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private int deleteChunk(Expiry expiry, Object cutoff, int chunkSize) {
+        AbstractTable<?> table = expiry.table;
+        String column = expiry.column.getName();
+        Database db = table.getDatabase();
+        if (!(db instanceof SqlDatabase)) {
+            // e.g. the heap database, which doesn't understand raw SQL
+            return Query.from(table).delete().where(column, Query.lt("?")).limit(chunkSize).execute(cutoff);
+        }
+        if (((SqlDatabase) db).supportsDeleteLimit()) {
+            return table.executeUpdate("DELETE FROM `{TABLE}` WHERE `" + column + "` < ? LIMIT " + chunkSize, cutoff);
+        }
+
+        List<ColumnMetadata> primaryKeys = table.getMetadata().getPrimaryKeys();
+        if (primaryKeys.size() != 1) {
+            throw new IllegalStateException("Chunked deletes on " + table.getName() + " require a single primary key column");
+        }
+        String primaryKey = primaryKeys.get(0).getName();
+
+        Object last;
+        try {
+            ResultSet rs = table.executeQuery("SELECT MAX(`" + primaryKey + "`) FROM (SELECT `" + primaryKey + "` FROM `{TABLE}` WHERE `"
+                                              + column + "` < ? ORDER BY `" + primaryKey + "` LIMIT " + chunkSize + ") chunk", cutoff);
+            last = rs.next() ? rs.getObject(1) : null;
+            rs.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (last == null) {
+            return 0;
+        }
+        return table.executeUpdate("DELETE FROM `{TABLE}` WHERE `" + column + "` < ? AND `" + primaryKey + "` <= ?", cutoff, last);
+    }
+
+    private static Object toColumnValue(ColumnMetadata column, long millis) {
+        Class<?> type = column.getType();
+        if (type == long.class || type == Long.class) {
+            return millis;
+        }
+        if (type == int.class || type == Integer.class) {
+            return (int) TimeUnit.MILLISECONDS.toSeconds(millis);
+        }
+        if (type == Instant.class) {
+            return Instant.ofEpochMilli(millis);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return new Timestamp(millis);
+        }
+        throw new IllegalArgumentException("Column " + column.getName() + " can't be used for expiry: unsupported type " + type.getName());
+    }
+
+    private static final class Expiry {
+        private final AbstractTable<?> table;
+        private final ColumnMetadata column;
+        private final long timeToLive;
+        private final PurgeStatistics statistics;
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private Expiry(AbstractTable<?> table, ColumnMetadata column, long timeToLive, PurgeStatistics statistics) {
+            this.table = table;
+            this.column = column;
+            this.timeToLive = timeToLive;
+            this.statistics = statistics;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.maintenance;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.PartitionType;
+import de.static_interface.sinksql.SqlDatabase;
+import de.static_interface.sinksql.annotation.Partitioned;
+import org.apache.commons.lang3.Validate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adds and drops the partitions of a {@link PartitionType#RANGE} {@link Partitioned} table<br/>
+ * Partitions are named <code>p&lt;boundary&gt;</code> and contain all rows below the boundary which are not in a
+ * lower partition. New partitions are split from the catch-all partition <code>pmax</code>, so they should be
+ * created before rows for them are inserted. Dropping a partition deletes its rows without scanning them.<br/>
+ * All methods do nothing if the database doesn't support partitioning.
+ */
+public class PartitionManager {
+
+    private final AbstractTable<?> table;
+    private final Partitioned partitioned;
+
+    /**
+     * @param table the partitioned table
+     */
+    public PartitionManager(AbstractTable<?> table) {
+        Validate.notNull(table);
+        this.table = table;
+        this.partitioned = table.getRowClass().getAnnotation(Partitioned.class);
+        if (partitioned == null || partitioned.type() != PartitionType.RANGE) {
+            throw new IllegalArgumentException("Table " + table.getName() + " is not RANGE partitioned");
+        }
+    }
+
+    /**
+     * @param boundary the upper boundary of the partition
+     * @return the name of the partition
+     */
+    public static String getPartitionName(long boundary) {
+        return boundary < 0 ? "pn" + (-boundary) : "p" + boundary;
+    }
+
+    /**
+     * @return true if the table has been partitioned by the database
+     */
+    public boolean isSupported() {
+        return table.getDatabase() instanceof SqlDatabase && ((SqlDatabase) table.getDatabase()).supportsPartitioning();
+    }
+
+    /**
+     * @return the upper boundaries of all range partitions in ascending order, excluding <code>pmax</code>
+     */
+    @SuppressWarnings("deprecation")
+    public List<Long> getBoundaries() {
+        List<Long> boundaries = new ArrayList<>();
+        if (!isSupported()) {
+            return boundaries;
+        }
+
+        try {
+            ResultSet rs = table.executeQuery("SELECT `PARTITION_DESCRIPTION` FROM information_schema.`PARTITIONS` "
+                                              + "WHERE `TABLE_SCHEMA`=DATABASE() AND `TABLE_NAME`=? AND `PARTITION_NAME` IS NOT NULL",
+                                              table.getName());
+            while (rs.next()) {
+                String description = rs.getString(1);
+                if (description != null && !description.equalsIgnoreCase("MAXVALUE")) {
+                    boundaries.add(Long.parseLong(description.trim()));
+                }
+            }
+            rs.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        Collections.sort(boundaries);
+        return boundaries;
+    }
+
+    /**
+     * Creates the partitions for all ranges up to the range of <code>until</code>. The first partition of an empty
+     * table starts at the range of <code>from</code>
+     * @param from the lowest value which should get its own partition
+     * @param until the highest value which should get its own partition
+     * @return the count of created partitions
+     */
+    @SuppressWarnings("deprecation")
+    public int createPartitions(long from, long until) {
+        if (!isSupported()) {
+            return 0;
+        }
+
+        long rangeSize = partitioned.rangeSize();
+        List<Long> boundaries = getBoundaries();
+        long last = boundaries.isEmpty() ? Math.floorDiv(from, rangeSize) * rangeSize : boundaries.get(boundaries.size() - 1);
+
+        String partitions = "";
+        int count = 0;
+        if (boundaries.isEmpty()) {
+            partitions += partitionToSql(last);
+            count++;
+        }
+        while (last <= until) {
+            last += rangeSize;
+            partitions += partitionToSql(last);
+            count++;
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        table.executeUpdate("ALTER TABLE `{TABLE}` REORGANIZE PARTITION `pmax` INTO (" + partitions
+                            + "PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+        return count;
+    }
+
+    /**
+     * Drops all partitions which only contain rows below the given value
+     * @param value the lowest value to keep
+     * @return the count of dropped partitions
+     */
+    @SuppressWarnings("deprecation")
+    public int dropPartitionsBefore(long value) {
+        if (!isSupported()) {
+            return 0;
+        }
+
+        String partitions = "";
+        int count = 0;
+        for (long boundary : getBoundaries()) {
+            if (boundary > value) {
+                break;
+            }
+            if (!partitions.equals("")) {
+                partitions += ", ";
+            }
+            partitions += "`" + getPartitionName(boundary) + "`";
+            count++;
+        }
+
+        if (count > 0) {
+            table.executeUpdate("ALTER TABLE `{TABLE}` DROP PARTITION " + partitions);
+        }
+        return count;
+    }
+
+    private String partitionToSql(long boundary) {
+        return "PARTITION `" + getPartitionName(boundary) + "` VALUES LESS THAN (" + boundary + "), ";
+    }
+}
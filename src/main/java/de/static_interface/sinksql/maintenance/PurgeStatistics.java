@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.maintenance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the purges of a single table, see {@link ExpiryService#getStatistics(de.static_interface.sinksql.AbstractTable)}
+ */
+public final class PurgeStatistics {
+
+    private final AtomicLong deletedRows = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong lastRunDeletedRows = new AtomicLong();
+    private final AtomicLong lastRunTime = new AtomicLong();
+    private final AtomicLong lastChunkLatency = new AtomicLong();
+    private final AtomicInteger chunkSize = new AtomicInteger();
+
+    PurgeStatistics(int chunkSize) {
+        this.chunkSize.set(chunkSize);
+    }
+
+    void recordChunk(int deleted, long latencyNanos) {
+        deletedRows.addAndGet(deleted);
+        chunks.incrementAndGet();
+        lastChunkLatency.set(latencyNanos);
+    }
+
+    void recordRun(long deleted) {
+        runs.incrementAndGet();
+        lastRunDeletedRows.set(deleted);
+        lastRunTime.set(System.currentTimeMillis());
+    }
+
+    AtomicInteger chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the total count of deleted rows
+     */
+    public long getDeletedRows() {
+        return deletedRows.get();
+    }
+
+    /**
+     * @return the total count of executed <code>DELETE</code> statements
+     */
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * @return the count of completed purges
+     */
+    public long getRuns() {
+        return runs.get();
+    }
+
+    /**
+     * @return the count of rows deleted by the last completed purge
+     */
+    public long getLastRunDeletedRows() {
+        return lastRunDeletedRows.get();
+    }
+
+    /**
+     * @return the time in epoch milliseconds when the last purge has completed, 0 if no purge has completed yet
+     */
+    public long getLastRunTime() {
+        return lastRunTime.get();
+    }
+
+    /**
+     * @return the latency of the last <code>DELETE</code> statement in nanoseconds
+     */
+    public long getLastChunkLatency() {
+        return lastChunkLatency.get();
+    }
+
+    /**
+     * @return the current maximum count of rows deleted by a single statement
+     */
+    public int getChunkSize() {
+        return chunkSize.get();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.query;
+
+import de.static_interface.sinksql.ProjectionMapper;
+import de.static_interface.sinksql.Row;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A query whose results are mapped to a projection class instead of the row class of the table
+ * @param <T> See {@link Row}
+ * @param <P> the projection type
+ * @see ProjectionMapper
+ */
+public class ProjectedQuery<T extends Row, P> {
+
+    private final Query<T> query;
+    private final Class<P> projectionType;
+
+    public ProjectedQuery(Query<T> query, Class<P> projectionType) {
+        this.query = query;
+        this.projectionType = projectionType;
+    }
+
+    /**
+     * Get the Result as {@link P}[] array
+     * @param bindings the SQL bindings
+     */
+    @Nonnull
+    public P[] getResults(Object... bindings) {
+        List<P> result = query.getMasterQuery().getTable().getDatabase().getProjections(query, projectionType, bindings);
+        P[] array = (P[]) Array.newInstance(projectionType, result.size());
+        return result.toArray(array);
+    }
+
+    /**
+     * Get the query result as {@link P}
+     * @param bindings the SQL bindings
+     */
+    @Nullable
+    public P get(Object... bindings) {
+        P[] results = getResults(bindings);
+        if (results.length < 1) {
+            return null;
+        }
+        return results[0];
+    }
+
+    /**
+     * @return the projected query
+     */
+    public Query<T> getQuery() {
+        return query;
+    }
+
+    /**
+     * @return the projection class
+     */
+    public Class<P> getProjectionType() {
+        return projectionType;
+    }
+}
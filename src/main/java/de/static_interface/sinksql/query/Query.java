@@ -18,12 +18,15 @@
 package de.static_interface.sinksql.query;
 
 import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ProjectionMapper;
 import de.static_interface.sinksql.Row;
 import de.static_interface.sinksql.query.condition.EqualsCondition;
 import de.static_interface.sinksql.query.condition.GreaterThanCondition;
 import de.static_interface.sinksql.query.condition.GreaterThanEqualsCondition;
 import de.static_interface.sinksql.query.condition.LikeCondition;
+import de.static_interface.sinksql.query.condition.MatchCondition;
 import de.static_interface.sinksql.query.condition.WhereCondition;
+import de.static_interface.sinksql.query.expression.ArithmeticExpression;
 import de.static_interface.sinksql.query.impl.DeleteQuery;
 import de.static_interface.sinksql.query.impl.FromQuery;
 import de.static_interface.sinksql.query.impl.LimitQuery;
@@ -31,6 +34,9 @@ import de.static_interface.sinksql.query.impl.OrderByQuery;
 import de.static_interface.sinksql.query.impl.SelectQuery;
 import de.static_interface.sinksql.query.impl.UpdateQuery;
 
+import java.io.InputStream;
+import java.util.function.Consumer;
+
 import javax.annotation.Nonnull;
 
 public abstract class Query<T extends Row> {
@@ -110,6 +116,40 @@ public abstract class Query<T extends Row> {
         return new LikeCondition(pattern);
     }
 
+    /**
+     * Search the column with its {@link de.static_interface.sinksql.annotation.FullTextIndex}. On MySQL, the value is
+     * searched in boolean mode and all columns of the index have to be given
+     * @param o the search terms. Strings will be SQL escaped, "?" can be used for bindings
+     * @param additionalColumns the other columns of the full-text index
+     */
+    public static MatchCondition match(Object o, String... additionalColumns) {
+        return new MatchCondition(o, additionalColumns);
+    }
+
+    /**
+     * Add the given value to the current column value. Only usable in <code>SET</code> statements
+     * @param o the value to add. Strings will be SQL escaped, "?" can be used for bindings
+     */
+    public static ArithmeticExpression add(Object o) {
+        return new ArithmeticExpression(ArithmeticExpression.Operator.ADD, o);
+    }
+
+    /**
+     * Subtract the given value from the current column value. Only usable in <code>SET</code> statements
+     * @param o the value to subtract. Strings will be SQL escaped, "?" can be used for bindings
+     */
+    public static ArithmeticExpression subtract(Object o) {
+        return new ArithmeticExpression(ArithmeticExpression.Operator.SUBTRACT, o);
+    }
+
+    /**
+     * Multiply the current column value with the given value. Only usable in <code>SET</code> statements
+     * @param o the factor. Strings will be SQL escaped, "?" can be used for bindings
+     */
+    public static ArithmeticExpression multiply(Object o) {
+        return new ArithmeticExpression(ArithmeticExpression.Operator.MULTIPLY, o);
+    }
+
     public Query<T> getParent() {
         return parent;
     }
@@ -148,10 +188,10 @@ public abstract class Query<T extends Row> {
      * Execute {@link DeleteQuery} and {@link UpdateQuery}s <br/>
      * For {@link SelectQuery}s please use {@link #get(Object...)} or {@link #getResults(Object...)}
      * @param bindings the SQL bindings
+     * @return the count of affected rows
      */
-    @SuppressWarnings("deprecation")
-    public void execute(Object... bindings) {
-        getMasterQuery().getTable().executeUpdate(toSql(), bindings);
+    public int execute(Object... bindings) {
+        return getMasterQuery().getTable().getDatabase().execute(this, bindings);
     }
 
     /**
@@ -159,9 +199,60 @@ public abstract class Query<T extends Row> {
      * @param bindings the SQL bindings
      */
     @Nonnull
-    @SuppressWarnings("deprecation")
     public T[] getResults(Object... bindings) {
-        return getMasterQuery().getTable().get(toSql(), bindings);
+        return getMasterQuery().getTable().getDatabase().getResults(this, bindings);
+    }
+
+    /**
+     * Get a single column of the result as int[] without creating any {@link T} objects
+     * @param column the column to read, usually the only selected column
+     * @param bindings the SQL bindings
+     */
+    @Nonnull
+    public int[] intColumn(String column, Object... bindings) {
+        return getMasterQuery().getTable().getDatabase().getIntColumn(this, column, bindings);
+    }
+
+    /**
+     * Get a single column of the result as long[] without creating any {@link T} objects
+     * @param column the column to read, usually the only selected column
+     * @param bindings the SQL bindings
+     */
+    @Nonnull
+    public long[] longColumn(String column, Object... bindings) {
+        return getMasterQuery().getTable().getDatabase().getLongColumn(this, column, bindings);
+    }
+
+    /**
+     * Get a single column of the result as double[] without creating any {@link T} objects
+     * @param column the column to read, usually the only selected column
+     * @param bindings the SQL bindings
+     */
+    @Nonnull
+    public double[] doubleColumn(String column, Object... bindings) {
+        return getMasterQuery().getTable().getDatabase().getDoubleColumn(this, column, bindings);
+    }
+
+    /**
+     * Stream a binary column of each result row, e.g. a {@link de.static_interface.sinksql.BinaryValue} or byte[] column,
+     * without copying the values into the heap<br/>
+     * The stream is only valid inside of the consumer, <code>NULL</code> values are passed as null
+     * @param column the column to read, usually the only selected column
+     * @param consumer called with the stream of each row
+     * @param bindings the SQL bindings
+     */
+    public void readBinary(String column, Consumer<InputStream> consumer, Object... bindings) {
+        getMasterQuery().getTable().getDatabase().readBinary(this, column, consumer, bindings);
+    }
+
+    /**
+     * Map the results to a lightweight projection class instead of {@link T}<br/>
+     * <b>Example:</b> <code>Query.from(table).select("id", "name").where("id", eq("?")).as(UserName.class).get(5)</code>
+     * @param projectionType the projection class, see {@link ProjectionMapper}
+     * @return the projected query
+     */
+    public <P> ProjectedQuery<T, P> as(Class<P> projectionType) {
+        return new ProjectedQuery<>(this, projectionType);
     }
 
     /**
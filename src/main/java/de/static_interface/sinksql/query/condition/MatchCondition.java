@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.query.condition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A full-text search on a {@link de.static_interface.sinksql.annotation.FullTextIndex}
+ */
+public class MatchCondition extends WhereCondition {
+
+    private final List<String> additionalColumns;
+
+    public MatchCondition(Object value, String... additionalColumns) {
+        super(value);
+        this.additionalColumns = Collections.unmodifiableList(Arrays.asList(additionalColumns));
+    }
+
+    /**
+     * @return the columns of the full-text index besides the column of the where statement
+     */
+    public List<String> getAdditionalColumns() {
+        return additionalColumns;
+    }
+}
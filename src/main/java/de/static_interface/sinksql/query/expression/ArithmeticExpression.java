@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.query.expression;
+
+/**
+ * An arithmetic expression on the current value of the column which is set<br/>
+ * <b>Example:</b> <code>set("coins", Query.add("?"))</code> will be rendered as <code>`coins`=`coins` + ?</code>
+ */
+public class ArithmeticExpression extends SetExpression {
+
+    private final Operator operator;
+
+    public ArithmeticExpression(Operator operator, Object value) {
+        super(value);
+        this.operator = operator;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public enum Operator {
+        ADD("+"),
+        SUBTRACT("-"),
+        MULTIPLY("*");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String toSql() {
+            return symbol;
+        }
+    }
+}
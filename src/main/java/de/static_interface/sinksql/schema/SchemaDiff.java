@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.schema;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.SqlDatabase;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The columns, indexes and unique keys of a row class which are missing on the existing table, read from the JDBC
+ * {@link DatabaseMetaData}. Unique keys are matched by their columns, since implicitly created unique indexes have
+ * database specific names.<br/>
+ * Changed or removed columns are not detected. Foreign keys are not compared either, {@link de.static_interface.sinksql.annotation.ForeignKey}s
+ * added to the row class of an existing table have to be added manually.
+ */
+public final class SchemaDiff {
+
+    private final boolean tableExists;
+    private final Set<String> existingColumns;
+    private final List<ColumnMetadata> missingColumns;
+    private final List<IndexMetadata> missingIndexes;
+    private final List<IndexMetadata> missingUniqueKeys;
+
+    private SchemaDiff(boolean tableExists, Set<String> existingColumns, List<ColumnMetadata> missingColumns, List<IndexMetadata> missingIndexes,
+                       List<IndexMetadata> missingUniqueKeys) {
+        this.tableExists = tableExists;
+        this.existingColumns = Collections.unmodifiableSet(existingColumns);
+        this.missingColumns = Collections.unmodifiableList(missingColumns);
+        this.missingIndexes = Collections.unmodifiableList(missingIndexes);
+        this.missingUniqueKeys = Collections.unmodifiableList(missingUniqueKeys);
+    }
+
+    /**
+     * @param db the database of the table
+     * @param table the table
+     * @return the differences between the row class and the existing table
+     * @throws SQLException if the metadata couldn't be read
+     */
+    public static SchemaDiff compute(SqlDatabase db, AbstractTable<?> table) throws SQLException {
+        Connection connection = db.getConnection();
+        DatabaseMetaData metaData = connection.getMetaData();
+        String catalog = connection.getCatalog();
+
+        String tableName = table.getName();
+        Set<String> columns = readNames(metaData.getColumns(catalog, null, tableName, null), "COLUMN_NAME");
+        if (columns.isEmpty() && metaData.storesUpperCaseIdentifiers()) {
+            tableName = tableName.toUpperCase();
+            columns = readNames(metaData.getColumns(catalog, null, tableName, null), "COLUMN_NAME");
+        }
+
+        List<ColumnMetadata> missingColumns = new ArrayList<>();
+        List<IndexMetadata> missingIndexes = new ArrayList<>();
+        List<IndexMetadata> missingUniqueKeys = new ArrayList<>();
+        if (columns.isEmpty()) {
+            return new SchemaDiff(false, columns, missingColumns, missingIndexes, missingUniqueKeys);
+        }
+
+        for (ColumnMetadata column : table.getMetadata().getColumns()) {
+            if (!columns.contains(column.getName().toLowerCase())) {
+                missingColumns.add(column);
+            }
+        }
+
+        Set<String> indexes = readNames(metaData.getIndexInfo(catalog, null, tableName, false, true), "INDEX_NAME");
+        for (IndexMetadata index : db.getIndexes(table)) {
+            if (!indexes.contains(index.getName(table.getName()).toLowerCase())) {
+                missingIndexes.add(index);
+            }
+        }
+
+        Collection<Set<String>> uniqueIndexes = readUniqueIndexColumns(metaData.getIndexInfo(catalog, null, tableName, true, true));
+        for (IndexMetadata uniqueKey : table.getMetadata().getUniqueKeys()) {
+            Set<String> uniqueColumns = new HashSet<>();
+            for (String column : uniqueKey.getColumns()) {
+                uniqueColumns.add(column.toLowerCase());
+            }
+            if (!uniqueIndexes.contains(uniqueColumns)) {
+                missingUniqueKeys.add(uniqueKey);
+            }
+        }
+
+        return new SchemaDiff(true, columns, missingColumns, missingIndexes, missingUniqueKeys);
+    }
+
+    private static Collection<Set<String>> readUniqueIndexColumns(ResultSet rs) throws SQLException {
+        Map<String, Set<String>> indexes = new HashMap<>();
+        try {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name != null && column != null && !rs.getBoolean("NON_UNIQUE")) {
+                    indexes.computeIfAbsent(name, k -> new HashSet<>()).add(column.toLowerCase());
+                }
+            }
+        } finally {
+            rs.close();
+        }
+        return new HashSet<>(indexes.values());
+    }
+
+    private static Set<String> readNames(ResultSet rs, String column) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try {
+            while (rs.next()) {
+                String name = rs.getString(column);
+                if (name != null) {
+                    names.add(name.toLowerCase());
+                }
+            }
+        } finally {
+            rs.close();
+        }
+        return names;
+    }
+
+    /**
+     * @return true if the table exists
+     */
+    public boolean isTableExisting() {
+        return tableExists;
+    }
+
+    /**
+     * @return the lower case names of the columns of the existing table
+     */
+    public Set<String> getExistingColumns() {
+        return existingColumns;
+    }
+
+    /**
+     * @return the columns which don't exist on the table
+     */
+    public List<ColumnMetadata> getMissingColumns() {
+        return missingColumns;
+    }
+
+    /**
+     * @return the indexes which don't exist on the table
+     */
+    public List<IndexMetadata> getMissingIndexes() {
+        return missingIndexes;
+    }
+
+    /**
+     * @return the unique keys which don't exist on the table
+     */
+    public List<IndexMetadata> getMissingUniqueKeys() {
+        return missingUniqueKeys;
+    }
+
+    /**
+     * @return true if nothing is missing
+     */
+    public boolean isEmpty() {
+        return missingColumns.isEmpty() && missingIndexes.isEmpty() && missingUniqueKeys.isEmpty();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.schema;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.IndexMetadata;
+import de.static_interface.sinksql.SqlDatabase;
+import org.apache.commons.lang3.Validate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds missing columns, indexes and unique keys to existing tables, see {@link SchemaDiff}<br/>
+ * The changes are applied with online DDL (<code>ALGORITHM=INPLACE, LOCK=NONE</code> on MySQL). If the database rejects
+ * this algorithm and the shadow copy fallback has been enabled, the table is rebuilt instead: a new table is created
+ * with the current schema, triggers mirror all inserts, updates and deletes into it, the rows are copied in chunks of
+ * the primary key and both tables are swapped with <code>RENAME TABLE</code>. The triggers are dropped after the swap.<br/>
+ * <b>Limitations of the fallback:</b> it needs a single column primary key, triggers and <code>RENAME TABLE</code>
+ * (MySQL). The previous table is kept as <code>&lt;table&gt;_old_&lt;timestamp&gt;</code> and has to be dropped
+ * manually. Tables which are referenced by foreign keys can't be swapped.
+ */
+public class SchemaMigrator {
+
+    private final SqlDatabase db;
+    private volatile boolean shadowCopyFallback = false;
+    private volatile int copyChunkSize = 1000;
+
+    /**
+     * @param db the database
+     */
+    public SchemaMigrator(SqlDatabase db) {
+        Validate.notNull(db);
+        this.db = db;
+    }
+
+    /**
+     * @param shadowCopyFallback true if tables should be rebuilt when online DDL fails
+     */
+    public void setShadowCopyFallback(boolean shadowCopyFallback) {
+        this.shadowCopyFallback = shadowCopyFallback;
+    }
+
+    /**
+     * @param copyChunkSize the count of rows copied by a single statement of the shadow copy
+     */
+    public void setCopyChunkSize(int copyChunkSize) {
+        Validate.isTrue(copyChunkSize > 0, "Invalid chunk size");
+        this.copyChunkSize = copyChunkSize;
+    }
+
+    /**
+     * Adds the missing columns and indexes to the table
+     * @param table the table
+     * @return true if the table has been changed
+     * @throws SQLException if the table couldn't be changed
+     */
+    @SuppressWarnings("deprecation")
+    public boolean migrate(AbstractTable<?> table) throws SQLException {
+        SchemaDiff diff = SchemaDiff.compute(db, table);
+        if (!diff.isTableExisting() || diff.isEmpty()) {
+            return false;
+        }
+
+        try {
+            for (ColumnMetadata column : diff.getMissingColumns()) {
+                table.executeUpdate(db.getAddColumnSql(table, column));
+            }
+            for (IndexMetadata index : diff.getMissingIndexes()) {
+                table.executeUpdate(db.getCreateIndexSql(table, index));
+            }
+            for (IndexMetadata uniqueKey : diff.getMissingUniqueKeys()) {
+                table.executeUpdate(db.getCreateUniqueIndexSql(table, uniqueKey));
+            }
+        } catch (RuntimeException e) {
+            if (!shadowCopyFallback || !isOnlineDdlUnsupported(e)) {
+                throw e;
+            }
+            System.out.println("Online schema change of " + table.getName() + " failed, rebuilding it with a shadow copy");
+            copyAndSwap(table, SchemaDiff.compute(db, table));
+        }
+        return true;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void copyAndSwap(AbstractTable<?> table, SchemaDiff diff) throws SQLException {
+        List<ColumnMetadata> primaryKeys = table.getMetadata().getPrimaryKeys();
+        if (primaryKeys.size() != 1) {
+            throw new IllegalStateException("Shadow copies of " + table.getName() + " require a single primary key column");
+        }
+
+        char bt = db.getBacktick();
+        String primaryKey = bt + primaryKeys.get(0).getName() + bt;
+        String shadowTable = bt + table.getName() + "_shadow" + bt;
+        String oldTableName = table.getName() + "_old_" + System.currentTimeMillis() / 1000;
+        String oldTable = bt + oldTableName + bt;
+
+        String columns = "";
+        for (ColumnMetadata column : table.getMetadata().getColumns()) {
+            if (!diff.getExistingColumns().contains(column.getName().toLowerCase())) {
+                continue;
+            }
+            if (!columns.equals("")) {
+                columns += ", ";
+            }
+            columns += bt + column.getName() + bt;
+        }
+
+        table.executeUpdate("DROP TABLE IF EXISTS " + shadowTable);
+        table.executeUpdate(db.getCreateTableSql(table, table.getName() + "_shadow"));
+
+        String[] triggers = createTriggers(table, primaryKey, shadowTable, columns);
+        boolean swapped = false;
+        try {
+            Object last = null;
+            while (true) {
+                String range = last == null ? "" : " WHERE " + primaryKey + " > ?";
+                Object[] bindings = last == null ? new Object[0] : new Object[]{last};
+                long start = System.nanoTime();
+
+                Object max;
+                ResultSet rs = table.executeQuery("SELECT MAX(" + primaryKey + ") FROM (SELECT " + primaryKey + " FROM " + bt + "{TABLE}" + bt
+                                                  + range + " ORDER BY " + primaryKey + " LIMIT " + copyChunkSize + ") chunk", bindings);
+                max = rs.next() ? rs.getObject(1) : null;
+                rs.close();
+                if (max == null) {
+                    break;
+                }
+
+                // rows which have already been written by the triggers are newer than the copied ones
+                if (last == null) {
+                    table.executeUpdate("INSERT IGNORE INTO " + shadowTable + " (" + columns + ") SELECT " + columns + " FROM " + bt + "{TABLE}"
+                                        + bt + " WHERE " + primaryKey + " <= ?", max);
+                } else {
+                    table.executeUpdate("INSERT IGNORE INTO " + shadowTable + " (" + columns + ") SELECT " + columns + " FROM " + bt + "{TABLE}"
+                                        + bt + " WHERE " + primaryKey + " > ? AND " + primaryKey + " <= ?", last, max);
+                }
+                last = max;
+
+                try {
+                    TimeUnit.NANOSECONDS.sleep(System.nanoTime() - start);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while copying " + table.getName(), e);
+                }
+            }
+
+            table.executeUpdate("RENAME TABLE " + bt + "{TABLE}" + bt + " TO " + oldTable + ", " + shadowTable + " TO " + bt + "{TABLE}" + bt);
+            swapped = true;
+        } finally {
+            for (String trigger : triggers) {
+                table.executeUpdate("DROP TRIGGER IF EXISTS " + trigger);
+            }
+            if (!swapped) {
+                table.executeUpdate("DROP TABLE IF EXISTS " + shadowTable);
+            }
+        }
+        System.out.println("Rebuilt " + table.getName() + ", the previous table has been kept as " + oldTableName);
+    }
+
+    /**
+     * Creates the triggers which mirror all writes to the table into the shadow table while it's being copied
+     * @return the names of the created triggers
+     */
+    private String[] createTriggers(AbstractTable<?> table, String primaryKey, String shadowTable, String columns) {
+        char bt = db.getBacktick();
+        String values = "";
+        for (String column : columns.split(", ")) {
+            if (!values.equals("")) {
+                values += ", ";
+            }
+            values += "NEW." + column;
+        }
+
+        String prefix = table.getName() + "_shadow_";
+        String insertTrigger = bt + prefix + "ins" + bt;
+        String updateTrigger = bt + prefix + "upd" + bt;
+        String deleteTrigger = bt + prefix + "del" + bt;
+        String replace = "REPLACE INTO " + shadowTable + " (" + columns + ") VALUES (" + values + ")";
+        String target = bt + "{TABLE}" + bt;
+
+        List<String> created = new ArrayList<>();
+        try {
+            table.executeUpdate("CREATE TRIGGER " + insertTrigger + " AFTER INSERT ON " + target + " FOR EACH ROW " + replace);
+            created.add(insertTrigger);
+            // a changed primary key moves the row, so the row with the old key has to be removed
+            table.executeUpdate("CREATE TRIGGER " + updateTrigger + " AFTER UPDATE ON " + target + " FOR EACH ROW BEGIN DELETE IGNORE FROM "
+                                + shadowTable + " WHERE NOT (OLD." + primaryKey + " <=> NEW." + primaryKey + ") AND " + primaryKey
+                                + " <=> OLD." + primaryKey + "; " + replace + "; END");
+            created.add(updateTrigger);
+            table.executeUpdate("CREATE TRIGGER " + deleteTrigger + " AFTER DELETE ON " + target + " FOR EACH ROW DELETE IGNORE FROM "
+                                + shadowTable + " WHERE " + primaryKey + " <=> OLD." + primaryKey);
+            created.add(deleteTrigger);
+        } catch (RuntimeException e) {
+            for (String trigger : created) {
+                table.executeUpdate("DROP TRIGGER IF EXISTS " + trigger);
+            }
+            table.executeUpdate("DROP TABLE IF EXISTS " + shadowTable);
+            throw e;
+        }
+        return created.toArray(new String[created.size()]);
+    }
+
+    /**
+     * @param e the exception thrown by the online schema change
+     * @return true if the database doesn't support the change with online DDL, see
+     *         <code>ER_ALTER_OPERATION_NOT_SUPPORTED</code> on MySQL
+     */
+    private static boolean isOnlineDdlUnsupported(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (!(cause instanceof SQLException)) {
+                continue;
+            }
+            SQLException sqlException = (SQLException) cause;
+            int errorCode = sqlException.getErrorCode();
+            if (errorCode == 1845 || errorCode == 1846 || "0A000".equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
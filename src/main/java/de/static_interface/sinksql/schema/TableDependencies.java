@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.schema;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.ColumnMetadata;
+import de.static_interface.sinksql.annotation.ForeignKey;
+import de.static_interface.sinksql.impl.table.OptionsTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the order in which tables have to be created, based on their {@link ForeignKey}s
+ */
+public class TableDependencies {
+
+    /**
+     * @param table the table
+     * @return the classes of all tables which are referenced by foreign keys of the given table
+     */
+    public static Set<Class<?>> getReferencedTables(AbstractTable<?> table) {
+        Set<Class<?>> referenced = new HashSet<>();
+        for (ColumnMetadata column : table.getMetadata().getColumns()) {
+            ForeignKey foreignKey = column.getForeignKey();
+            if (foreignKey != null) {
+                referenced.add(foreignKey.table());
+            }
+        }
+
+        if (table instanceof OptionsTable && ((OptionsTable) table).getForeignTable() != null) {
+            referenced.add(((OptionsTable) table).getForeignTable());
+        }
+        return referenced;
+    }
+
+    /**
+     * Groups the tables into levels. Tables of a level only reference tables of previous levels, so all tables of a
+     * level can be created at the same time. References to tables which are not part of the given tables are ignored
+     * @param tables the tables
+     * @return the levels in creation order
+     * @throws IllegalStateException if the tables reference each other in a cycle
+     */
+    public static List<List<AbstractTable<?>>> getCreationLevels(Iterable<? extends AbstractTable<?>> tables) {
+        Map<Class<?>, List<AbstractTable<?>>> tablesByClass = new HashMap<>();
+        for (AbstractTable<?> table : tables) {
+            List<AbstractTable<?>> list = tablesByClass.get(table.getClass());
+            if (list == null) {
+                list = new ArrayList<>();
+                tablesByClass.put(table.getClass(), list);
+            }
+            list.add(table);
+        }
+
+        Map<AbstractTable<?>, Set<AbstractTable<?>>> remaining = new LinkedHashMap<>();
+        for (AbstractTable<?> table : tables) {
+            Set<AbstractTable<?>> dependencies = new HashSet<>();
+            for (Class<?> referenced : getReferencedTables(table)) {
+                for (Map.Entry<Class<?>, List<AbstractTable<?>>> entry : tablesByClass.entrySet()) {
+                    if (referenced.isAssignableFrom(entry.getKey())) {
+                        dependencies.addAll(entry.getValue());
+                    }
+                }
+            }
+            dependencies.remove(table); // self references don't need an order
+            remaining.put(table, dependencies);
+        }
+
+        List<List<AbstractTable<?>>> levels = new ArrayList<>();
+        Set<AbstractTable<?>> created = new HashSet<>();
+        while (!remaining.isEmpty()) {
+            List<AbstractTable<?>> level = new ArrayList<>();
+            for (Map.Entry<AbstractTable<?>, Set<AbstractTable<?>>> entry : remaining.entrySet()) {
+                if (created.containsAll(entry.getValue())) {
+                    level.add(entry.getKey());
+                }
+            }
+
+            if (level.isEmpty()) {
+                List<String> names = new ArrayList<>();
+                for (AbstractTable<?> table : remaining.keySet()) {
+                    names.add(table.getName());
+                }
+                throw new IllegalStateException("Cyclic foreign keys between tables: " + names);
+            }
+
+            for (AbstractTable<?> table : level) {
+                remaining.remove(table);
+            }
+            created.addAll(level);
+            levels.add(level);
+        }
+        return levels;
+    }
+}
@@ -23,6 +23,16 @@ public class StringUtil {
     public static boolean isEmptyOrNull(@Nullable String s) {
         return s == null || s.trim().length() == 0 || s.trim().isEmpty();
     }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            chars[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(chars);
+    }
+
     public static String formatArrayToString(Object[] input, @Nullable String character) {
         return formatArrayToString(input, character, 0, input.length);
     }
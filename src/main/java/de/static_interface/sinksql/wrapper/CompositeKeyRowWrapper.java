@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013 - 2016 Trojaner <trojaner25@gmail.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinksql.wrapper;
+
+import de.static_interface.sinksql.AbstractTable;
+import de.static_interface.sinksql.CompositeKeyRow;
+
+public abstract class CompositeKeyRowWrapper<T extends CompositeKeyRow> implements RowWrapper<T> {
+    private String[] keyColumns;
+    private Object[] keyValues;
+    private AbstractTable<T> table;
+
+    public CompositeKeyRowWrapper(AbstractTable<T> table, T row) {
+        keyColumns = row.getKeyColumns().clone();
+        keyValues = row.getKeyValues().clone();
+        if (keyColumns.length != keyValues.length) {
+            throw new IllegalArgumentException("Key columns and key values of " + row.getClass().getName() + " don't have the same length!");
+        }
+        this.table = table;
+    }
+
+    public T getBase() {
+        return table.getByKey(keyColumns, keyValues);
+    }
+
+    public Object[] getKeyValues() {
+        return keyValues.clone();
+    }
+
+    public String[] getKeyColumns() {
+        return keyColumns.clone();
+    }
+
+    public AbstractTable<T> getTable() {
+        return table;
+    }
+}